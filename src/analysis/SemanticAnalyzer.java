@@ -59,8 +59,59 @@ public class SemanticAnalyzer {
                 node.getRight() instanceof ValueNode){
     		ValueNode leftNode = ((ValueNode)node.getLeft());
     		ValueNode rightNode = ((ValueNode)node.getRight());
-    		double leftValue = Double.parseDouble(leftNode.getAttribute());
-    		double rightValue = Double.parseDouble(rightNode.getAttribute());
+    		
+    		//case both sides are integers, folded in 32 bit arithmetic that wraps around as MIPS does.
+    		if( leftNode.getType() == Keywords.INTEGER && rightNode.getType() == Keywords.INTEGER){
+    			int leftValue = (int) leftNode.getIntegerValue();
+    			int rightValue = (int) rightNode.getIntegerValue();
+    			int val = 0;
+    			//evaluate the expression
+    			switch( node.getOperation()){
+    				case PLUS:
+    					val = leftValue + rightValue;
+    					break;
+    				case MINUS:
+    					val = leftValue - rightValue;
+    					break;
+    				case DIVIDE:
+    				case MOD:
+    					//division by zero is left for the program to do.
+    					if( rightValue == 0){
+    						node.setType( Keywords.INTEGER);
+    						return node;
+    					}
+    					val = ( node.getOperation() == Keywords.DIVIDE) ? leftValue / rightValue : leftValue % rightValue;
+    					break;
+    				case TIMES:
+    					val = leftValue * rightValue;
+    					break;
+    				case EQUALITY_OPERATOR:
+    					val = ( leftValue == rightValue) ? 1 : 0;
+    					break;
+    				case NOT_EQUAL:
+    					val = ( leftValue != rightValue) ? 1 : 0;
+    					break;
+    				case LESS_THAN:
+    					val = ( leftValue < rightValue) ? 1 : 0;
+    					break;
+    				case LESS_THAN_EQUAL_TO:
+    					val = ( leftValue <= rightValue) ? 1 : 0;
+    					break;
+    				case GREATER_THAN_EQUAL_TO:
+    					val = ( leftValue >= rightValue) ? 1 : 0;
+    					break;
+    				case GREATER_THAN:
+    					val = ( leftValue > rightValue) ? 1 : 0;
+    					break;
+    				default:
+    					return node;
+    			}
+    			return new ValueNode( val);
+    		}
+    		
+    		//case one side is a real.
+    		double leftValue = leftNode.getRealValue();
+    		double rightValue = rightNode.getRealValue();
     		double val = 0.0;
     		//evaluate the expression
         	switch( node.getOperation()){
@@ -100,22 +151,20 @@ public class SemanticAnalyzer {
         		default:
         			return node;
         	}
-        	
-        	//build a new ValueNode, based on the result of the folding.
-        	ValueNode vn = null;
-        	
-        	//case both sides are integers.
-        	if( leftNode.getType() == Keywords.INTEGER && rightNode.getType() == Keywords.INTEGER){
-        		int int_val = (int) val;
-        		vn = new ValueNode("" + int_val, Keywords.INTEGER);
-        		vn.setType(Keywords.INTEGER);     
-        	//case one side is a real.
-        	}else{
-        		vn = new ValueNode("" + val, Keywords.REAL);
-        		vn.setType(Keywords.REAL);        		
-        	}
-        	
-        	return vn;
+        	return new ValueNode( val);
+        }
+        //case a constant is added to or taken from a sum that ends in a constant.
+        else if( isAdding( node) && isAdding( node.getLeft()) && isInteger( node.getRight())
+        		&& isInteger( ((OperationNode)node.getLeft()).getRight())
+        		&& node.getLeft().getType() == Keywords.INTEGER){
+        	//(x + 4) - 6 becomes x - 2, which integers allow in any order.
+        	OperationNode sum = (OperationNode)node.getLeft();
+        	int val = signedValue( sum) + signedValue( node);
+        	//the smallest int has no positive opposite, and adding it is the same as taking it away.
+        	boolean taken = val < 0 && val != Integer.MIN_VALUE;
+        	sum.setOperation( taken ? Keywords.MINUS : Keywords.PLUS);
+        	sum.setRight( new ValueNode( taken ? -val : val));
+        	return sum;
         }
         //set the type of the expression
         else {
@@ -127,4 +176,33 @@ public class SemanticAnalyzer {
             return node;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @param node, a node of an expression.
+     * @return true if the node adds or subtracts.
+     */
+    private static boolean isAdding( ExpressionNode node) {
+    	if( !(node instanceof OperationNode)){
+    		return false;
+    	}
+    	Keywords op = ((OperationNode)node).getOperation();
+    	return op == Keywords.PLUS || op == Keywords.MINUS;
+    }
+    
+    /**
+     * @param node, a node of an expression.
+     * @return true if the node is an integer value.
+     */
+    private static boolean isInteger( ExpressionNode node) {
+    	return node instanceof ValueNode && node.getType() == Keywords.INTEGER;
+    }
+    
+    /**
+     * @param node, an adding node whose right side is an integer value.
+     * @return the right side's value, negated if the node subtracts.
+     */
+    private static int signedValue( OperationNode node) {
+    	int value = (int) ((ValueNode)node.getRight()).getIntegerValue();
+    	return ( node.getOperation() == Keywords.MINUS) ? -value : value;
+    }
+}
@@ -0,0 +1,101 @@
+package analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import parser.MyParser;
+import scanner.Diagnostic;
+import scanner.Keywords;
+import syntaxtree.ExpressionNode;
+import syntaxtree.OperationNode;
+import syntaxtree.ValueNode;
+import syntaxtree.VariableNode;
+
+/**
+ *
+ * @author Allen Burgett
+ * Checks that integer constants fold in 32 bit arithmetic that wraps around
+ * as it does on MIPS, and that an integer literal too large for 32 bits is
+ * an error.
+ */
+
+public class SemanticAnalyzerTest {
+
+	@Test
+	public void testFoldingWrapsAround() {
+		assertEquals(1410065408, fold(Keywords.TIMES, 100000, 100000));
+		assertEquals(Integer.MIN_VALUE, fold(Keywords.PLUS, Integer.MAX_VALUE, 1));
+		assertEquals(Integer.MAX_VALUE, fold(Keywords.MINUS, Integer.MIN_VALUE, 1));
+		assertEquals(Integer.MIN_VALUE, fold(Keywords.DIVIDE, Integer.MIN_VALUE, -1));
+		assertEquals(1, fold(Keywords.TIMES, Integer.MAX_VALUE, Integer.MAX_VALUE));
+		assertEquals(1, fold(Keywords.LESS_THAN, Integer.MIN_VALUE, Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testDivisionByZeroIsNotFolded() {
+		OperationNode node = operation(Keywords.DIVIDE, new ValueNode(7), new ValueNode(0));
+		assertSame(node, new SemanticAnalyzer(node).codeFolding());
+	}
+
+	@Test
+	public void testSumsWrapAround() {
+		//(x + 2147483647) + 1 becomes x + -2147483648, which is the same as x - 2147483648 in 32 bits.
+		VariableNode x = new VariableNode("x", Keywords.INTEGER);
+		OperationNode sum = operation(Keywords.PLUS, x, new ValueNode(Integer.MAX_VALUE));
+		sum.setType(Keywords.INTEGER);
+		ExpressionNode folded = new SemanticAnalyzer(operation(Keywords.PLUS, sum, new ValueNode(1))).codeFolding();
+		assertSame(sum, folded);
+		assertEquals(Keywords.PLUS, sum.getOperation());
+		assertEquals(Integer.MIN_VALUE, ((ValueNode) sum.getRight()).getIntegerValue());
+
+		//(x - 2147483647) - 1 also becomes x + -2147483648.
+		sum = operation(Keywords.MINUS, x, new ValueNode(Integer.MAX_VALUE));
+		sum.setType(Keywords.INTEGER);
+		new SemanticAnalyzer(operation(Keywords.MINUS, sum, new ValueNode(1))).codeFolding();
+		assertEquals(Keywords.PLUS, sum.getOperation());
+		assertEquals(Integer.MIN_VALUE, ((ValueNode) sum.getRight()).getIntegerValue());
+
+		//(x + 5) - 7 becomes x - 2.
+		sum = operation(Keywords.PLUS, x, new ValueNode(5));
+		sum.setType(Keywords.INTEGER);
+		new SemanticAnalyzer(operation(Keywords.MINUS, sum, new ValueNode(7))).codeFolding();
+		assertEquals(Keywords.MINUS, sum.getOperation());
+		assertEquals(2, ((ValueNode) sum.getRight()).getIntegerValue());
+	}
+
+	@Test
+	public void testLiteralOutOfRange() {
+		assertTrue(parses("2147483647"));
+		assertFalse(parses("2147483648"));
+		assertFalse(parses("1E30"));
+	}
+
+	private static long fold(Keywords op, long left, long right) {
+		ExpressionNode folded = new SemanticAnalyzer(operation(op, new ValueNode(left), new ValueNode(right))).codeFolding();
+		return ((ValueNode) folded).getIntegerValue();
+	}
+
+	private static OperationNode operation(Keywords op, ExpressionNode left, ExpressionNode right) {
+		OperationNode node = new OperationNode(op);
+		node.setLeft(left);
+		node.setRight(right);
+		return node;
+	}
+
+	//true if a program assigning the number to a variable parses without errors.
+	private static boolean parses(String number) {
+		MyParser parser = new MyParser("program p;\nvar x : integer;\nbegin\nx := " + number + "\nend\n.\n", false);
+		parser.setQuiet(true);
+		boolean parsed = parser.program();
+		for(Diagnostic diagnostic : parser.getDiagnostics()){
+			if(diagnostic.toString().contains("out of range")){
+				return false;
+			}
+		}
+		return parsed;
+	}
+}
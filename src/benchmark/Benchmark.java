@@ -0,0 +1,109 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A piece of compiler work to be timed. Each run is prepared by setUp(),
+ * which is not timed, and then timed on its own. The runs are repeated to
+ * let the JIT compile the code before any run is measured, and the time and
+ * memory allocated by each measured run are reported along with the
+ * throughput in the benchmark's unit, such as tokens or lines.
+ * @author Allen Burgett
+ *
+ */
+public abstract class Benchmark {
+
+	private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	//results are added here so the JIT cannot remove work whose result is unused.
+	private static volatile long sink = 0;
+
+	private String name;
+	private String unit;
+
+	/**
+	 * Initializes a Benchmark.
+	 * @param name, name printed in the report.
+	 * @param unit, what run() counts, printed as the throughput unit.
+	 */
+	public Benchmark( String name, String unit){
+		this.name = name;
+		this.unit = unit;
+	}
+
+	/**
+	 * Prepares for one run. Not timed.
+	 * @throws Exception if the run cannot be prepared.
+	 */
+	protected void setUp() throws Exception{
+	}
+
+	/**
+	 * Does the work being timed.
+	 * @return the number of units processed, such as tokens or lines.
+	 * @throws Exception if the work fails.
+	 */
+	protected abstract long run() throws Exception;
+
+	/**
+	 * Runs the benchmark and reports its speed and allocation.
+	 * @param warmups, number of runs made before measuring.
+	 * @param iterations, number of runs measured.
+	 * @return one line of the report, see header().
+	 * @throws Exception if a run fails.
+	 */
+	public String measure( int warmups, int iterations) throws Exception{
+		for( int i = 0; i < warmups; i++){
+			setUp();
+			sink += run();
+		}
+
+		double[] millis = new double[iterations];
+		long totalNanos = 0;
+		long totalBytes = 0;
+		long units = 0;
+		for( int i = 0; i < iterations; i++){
+			setUp();
+			long startBytes = allocatedBytes();
+			long startTime = System.nanoTime();
+			units = run();
+			long time = System.nanoTime() - startTime;
+			totalBytes += allocatedBytes() - startBytes;
+			sink += units;
+			millis[i] = time / 1e6;
+			totalNanos += time;
+		}
+
+		double mean = (totalNanos / 1e6) / iterations;
+		double deviation = 0;
+		for( double time : millis){
+			deviation += (time - mean) * (time - mean);
+		}
+		deviation = Math.sqrt( deviation / iterations);
+		double throughput = (totalNanos == 0) ? 0 : (units * iterations) / (totalNanos / 1e9);
+		String allocation = (allocatedBytes() < 0) ? "n/a"
+				: String.format( "%.1f", (totalBytes / (double) iterations) / 1024);
+		return String.format( "%-40s %10.3f %9.3f %14.0f %-8s %12s",
+				name, mean, deviation, throughput, unit + "/s", allocation);
+	}
+
+	/**
+	 *
+	 * @return the column titles of the lines returned by measure().
+	 */
+	public static String header(){
+		return String.format( "%-40s %10s %9s %23s %12s",
+				"Benchmark", "ms/op", "+/-", "Throughput", "Alloc KB/op");
+	}
+
+	//bytes allocated so far by this thread, or -1 if the JVM cannot tell.
+	private static long allocatedBytes(){
+		if( THREADS instanceof com.sun.management.ThreadMXBean){
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+			if( threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()){
+				return threads.getThreadAllocatedBytes( Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+}
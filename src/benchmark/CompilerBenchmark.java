@@ -0,0 +1,330 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import analysis.SemanticAnalyzer;
+import codegen.CodeGenerator;
+import codegen.StringSink;
+import parser.MyParser;
+import scanner.ByteScanner;
+import scanner.DirectScanner;
+import scanner.Diagnostic;
+import scanner.Keywords;
+import scanner.MyScanner;
+import syntaxtree.ExpressionNode;
+import syntaxtree.OperationNode;
+import syntaxtree.ValueNode;
+
+/**
+ * Measures the throughput of each phase of the compiler: MyScanner.nextToken,
+ * DirectScanner.nextToken and ByteScanner.nextToken in tokens per second, MyParser.program in lines per second,
+ * SemanticAnalyzer.codeFolding in folded operations per second and
+ * CodeGenerator.compile in lines per second. The phases are run over the
+ * Mini-Pascal files given on the command line, res/ by default, and over
+ * synthetic programs from {@link WorkloadGenerator} large enough to show
+ * how the compiler scales.
+ *
+ * The benchmarks run on a thread with a large stack, as the parser and code
+ * generator recurse once per statement.
+ * @author Allen Burgett
+ *
+ */
+public class CompilerBenchmark {
+
+	private int warmups = 10;
+	private int iterations = 10;
+
+	/**
+	 * Initializes a CompilerBenchmark.
+	 * @param warmups, number of runs made before measuring.
+	 * @param iterations, number of runs measured.
+	 */
+	public CompilerBenchmark( int warmups, int iterations){
+		this.warmups = warmups;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Benchmarks the scanner, parser and code generator over one input.
+	 * @param name, name of the input printed in the report.
+	 * @param text, the Mini-Pascal program.
+	 * @throws Exception if a run fails.
+	 */
+	public void runInput( String name, final String text) throws Exception{
+		final int lines = countLines( text);
+
+		report( new Benchmark( "scan " + name, "tokens"){
+			protected long run() throws IOException{
+				MyScanner scanner = new MyScanner( new StringReader( text));
+				//collects the comments and warnings instead of printing them.
+				scanner.setDiagnostics( new ArrayList<Diagnostic>());
+				long tokens = 0;
+				while( scanner.nextToken() != null){
+					tokens++;
+				}
+				return tokens;
+			}
+		});
+
+		//the table scanner and the hand written scanner over the same text in memory.
+		final char[] chars = text.toCharArray();
+		report( new Benchmark( "scan table " + name, "tokens"){
+			protected long run() throws IOException{
+				MyScanner scanner = new MyScanner( CharBuffer.wrap( chars));
+				scanner.setDiagnostics( new ArrayList<Diagnostic>());
+				long tokens = 0;
+				while( scanner.nextToken() != null){
+					tokens++;
+				}
+				return tokens;
+			}
+		});
+		report( new Benchmark( "scan direct " + name, "tokens"){
+			protected long run(){
+				DirectScanner scanner = new DirectScanner( CharBuffer.wrap( chars));
+				scanner.setDiagnostics( new ArrayList<Diagnostic>());
+				long tokens = 0;
+				while( scanner.nextToken() != null){
+					tokens++;
+				}
+				return tokens;
+			}
+		});
+
+		//the same scan straight from the bytes, for text that is one byte per character.
+		final byte[] bytes = text.getBytes( StandardCharsets.ISO_8859_1);
+		if( new String( bytes, StandardCharsets.ISO_8859_1).equals( text)){
+			report( new Benchmark( "scan bytes " + name, "tokens"){
+				protected long run(){
+					ByteScanner scanner = new ByteScanner( bytes, bytes.length);
+					scanner.setDiagnostics( new ArrayList<Diagnostic>());
+					long tokens = 0;
+					while( scanner.nextToken() != null){
+						tokens++;
+					}
+					return tokens;
+				}
+			});
+		}
+
+		report( new Benchmark( "parse " + name, "lines"){
+			protected long run(){
+				parse( text);
+				return lines;
+			}
+		});
+
+		report( new Benchmark( "parse buffered " + name, "lines"){
+			protected long run(){
+				MyParser parser = new MyParser( new StringReader( text));
+				parser.setQuiet( true);
+				parser.setBuffered( true);
+				parser.program();
+				return lines;
+			}
+		});
+
+		//only programs that parse can be generated.
+		if( parse( text) == null){
+			System.out.println( "(" + name + " is not a valid program, code generation skipped)");
+			return;
+		}
+		report( new Benchmark( "codegen " + name, "lines"){
+			private MyParser parser;
+
+			protected void setUp(){
+				parser = parse( text);
+			}
+
+			protected long run(){
+				new CodeGenerator( parser.prog, parser.symbolTable, new StringSink()).compile();
+				return lines;
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks code folding over many constant expressions.
+	 * @param expressions, number of expressions folded in each run.
+	 * @param depth, depth of each expression tree.
+	 * @throws Exception if a run fails.
+	 */
+	public void runFolding( final int expressions, final int depth) throws Exception{
+		report( new Benchmark( "fold " + expressions + " trees of depth " + depth, "ops"){
+			private ExpressionNode[] trees = new ExpressionNode[expressions];
+
+			//folding replaces the trees, so new ones are built for every run.
+			protected void setUp(){
+				for( int i = 0; i < expressions; i++){
+					trees[i] = constantTree( depth, i);
+				}
+			}
+
+			protected long run(){
+				long operations = 0;
+				for( ExpressionNode tree : trees){
+					new SemanticAnalyzer( tree).codeFolding();
+					operations += (1 << depth) - 1;
+				}
+				return operations;
+			}
+		});
+	}
+
+	/**
+	 * Benchmarks parsing very long declaration and statement lists on a
+	 * thread with a small stack, which a parser that recursed once per
+	 * element would overflow.
+	 * @param elements, number of declarations, and of statements, in the program.
+	 * @throws Exception if a run fails.
+	 */
+	public void runLongLists( int elements) throws Exception{
+		final String text = longLists( elements);
+		final int lines = countLines( text);
+		report( new Benchmark( "parse " + elements + " declarations and statements on a 256 KB stack", "lines"){
+			protected long run() throws Exception{
+				final MyParser[] parsed = { null};
+				Thread thread = new Thread( null, new Runnable(){
+					public void run(){
+						parsed[0] = parse( text);
+					}
+				}, "parse", 256 * 1024);
+				thread.start();
+				thread.join();
+				if( parsed[0] == null){
+					throw new IllegalStateException( "long lists did not parse");
+				}
+				return lines;
+			}
+		});
+	}
+
+	private void report( Benchmark benchmark) throws Exception{
+		System.out.println( benchmark.measure( warmups, iterations));
+	}
+
+	//parses a program without printing, returning null if it is not valid.
+	private static MyParser parse( String text){
+		MyParser parser = new MyParser( new StringReader( text));
+		parser.setQuiet( true);
+		return parser.program() ? parser : null;
+	}
+
+	//builds a full tree of constant additions and multiplications.
+	private static ExpressionNode constantTree( int depth, int seed){
+		if( depth <= 1){
+			return new ValueNode( (long) (seed % 10 + 1));
+		}
+		OperationNode node = new OperationNode( (depth % 2 == 0) ? Keywords.PLUS : Keywords.TIMES);
+		node.setLeft( constantTree( depth - 1, seed + 1));
+		node.setRight( constantTree( depth - 1, seed + 2));
+		return node;
+	}
+
+	//half of the variables are declared in one long list, the rest one to a var.
+	private static String longLists( int elements){
+		StringBuilder text = new StringBuilder( "program big;\nvar v0");
+		int half = elements / 2;
+		for( int i = 1; i < half; i++){
+			text.append( ", v").append( i);
+		}
+		text.append( " : integer;\n");
+		for( int i = half; i < elements; i++){
+			text.append( "var v").append( i).append( " : integer;\n");
+		}
+		text.append( "begin\n");
+		for( int i = 0; i < elements; i++){
+			text.append( "v").append( i % elements).append( " := v").append( (i * 7) % elements).append( " + ").append( i).append( ";\n");
+		}
+		return text.append( "v0 := 0\nend\n.\n").toString();
+	}
+
+	private static int countLines( String text){
+		int lines = 1;
+		for( int i = 0; i < text.length(); i++){
+			if( text.charAt( i) == '\n'){
+				lines++;
+			}
+		}
+		return lines;
+	}
+
+	//builds a synthetic program of about the given number of lines.
+	private static String syntheticProgram( int lines){
+		WorkloadGenerator generator = new WorkloadGenerator();
+		generator.setTargetLines( lines);
+		return generator.generate();
+	}
+
+	/**
+	 * Usage: [-w warmups] [-i iterations] [-n synthetic lines] [files or directories...]
+	 * With no files, the programs in res/ are used.
+	 * @param args, options followed by the Mini-Pascal files to benchmark.
+	 * @throws InterruptedException if interrupted while the benchmarks run.
+	 */
+	public static void main( final String[] args) throws InterruptedException{
+		Thread thread = new Thread( null, new Runnable(){
+			public void run(){
+				try{
+					benchmark( args);
+				}catch( Exception ex){
+					ex.printStackTrace();
+				}
+			}
+		}, "benchmark", 1L << 30);
+		thread.start();
+		thread.join();
+	}
+
+	private static void benchmark( String[] args) throws Exception{
+		int warmups = 10;
+		int iterations = 10;
+		int syntheticLines = 10000;
+		ArrayList<File> paths = new ArrayList<File>();
+		for( int i = 0; i < args.length; i++){
+			if( args[i].equals( "-w") && i + 1 < args.length){
+				warmups = Integer.parseInt( args[++i]);
+			}else if( args[i].equals( "-i") && i + 1 < args.length){
+				iterations = Integer.parseInt( args[++i]);
+			}else if( args[i].equals( "-n") && i + 1 < args.length){
+				syntheticLines = Integer.parseInt( args[++i]);
+			}else{
+				paths.add( new File( args[i]));
+			}
+		}
+		if( paths.isEmpty()){
+			paths.add( new File( "res"));
+		}
+
+		LinkedHashMap<String, String> inputs = new LinkedHashMap<String, String>();
+		for( File path : paths){
+			File[] files = path.isDirectory() ? path.listFiles() : new File[]{ path};
+			if( files == null){
+				continue;
+			}
+			for( File file : files){
+				if( file.getName().endsWith( ".pas")){
+					inputs.put( file.getName(), new String( Files.readAllBytes( file.toPath())));
+				}
+			}
+		}
+		inputs.put( "synthetic-" + (syntheticLines / 10), syntheticProgram( syntheticLines / 10));
+		inputs.put( "synthetic-" + syntheticLines, syntheticProgram( syntheticLines));
+
+		CompilerBenchmark benchmark = new CompilerBenchmark( warmups, iterations);
+		System.out.println( Benchmark.header());
+		for( Map.Entry<String, String> input : inputs.entrySet()){
+			benchmark.runInput( input.getKey(), input.getValue());
+		}
+		benchmark.runFolding( 1000, 8);
+		benchmark.runLongLists( 1000000);
+	}
+}
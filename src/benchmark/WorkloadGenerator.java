@@ -0,0 +1,380 @@
+package benchmark;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Writes synthetic Mini-Pascal programs of a chosen shape, for finding where
+ * the scanner, parser and code generator stop scaling or run out of stack.
+ * The shape is set by the number of global variables, procedures and
+ * functions, the statements in each body, the depth of expressions, the
+ * depth of nested if and while statements, and the total number of lines.
+ * The same settings and seed always give the same program.
+ *
+ * Only constructs MyParser accepts are written: integer variables, every
+ * subprogram takes one to four arguments, subprograms only call the
+ * subprograms declared before them, conditions never use the greater than
+ * operator, signs are never used, and nested statements are always wrapped
+ * in begin and end.
+ * @author Allen Burgett
+ *
+ */
+public class WorkloadGenerator {
+
+	private static final String[] OPERATORS = { "+", "-", "*", "/"};
+	private static final String[] RELOPS = { "<", "<=", ">=", "=", "<>"};
+
+	private int globals = 8;
+	private int procedures = 4;
+	private int functions = 4;
+	private int statements = 8;
+	private int expressionDepth = 3;
+	private int nestingDepth = 2;
+	private long targetLines = 0;
+	private long seed = 42;
+
+	private Random random;
+	private Appendable out;
+	private long lines;
+	private int indent;
+	//the arguments of each subprogram, in the order they are declared.
+	private int[] argumentCounts;
+
+	/**
+	 * @param globals, number of global variables, at least one.
+	 */
+	public void setGlobals( int globals){
+		this.globals = Math.max( 1, globals);
+	}
+
+	/**
+	 * @param procedures, number of procedures.
+	 */
+	public void setProcedures( int procedures){
+		this.procedures = procedures;
+	}
+
+	/**
+	 * @param functions, number of functions.
+	 */
+	public void setFunctions( int functions){
+		this.functions = functions;
+	}
+
+	/**
+	 * @param statements, number of statements in each subprogram body, and at least in the main body.
+	 */
+	public void setStatements( int statements){
+		this.statements = Math.max( 1, statements);
+	}
+
+	/**
+	 * @param expressionDepth, depth of the operator tree of each expression.
+	 */
+	public void setExpressionDepth( int expressionDepth){
+		this.expressionDepth = Math.max( 1, expressionDepth);
+	}
+
+	/**
+	 * @param nestingDepth, how deep if and while statements are nested.
+	 */
+	public void setNestingDepth( int nestingDepth){
+		this.nestingDepth = nestingDepth;
+	}
+
+	/**
+	 * Sets the size of the program. Statements are added to the main body
+	 * until the program is at least this many lines long.
+	 * @param targetLines, number of lines, or 0 for only the set number of statements.
+	 */
+	public void setTargetLines( long targetLines){
+		this.targetLines = targetLines;
+	}
+
+	/**
+	 * @param seed, seed of the random choices.
+	 */
+	public void setSeed( long seed){
+		this.seed = seed;
+	}
+
+	/**
+	 * Builds a program in memory.
+	 * @return the Mini-Pascal program.
+	 */
+	public String generate(){
+		StringBuilder text = new StringBuilder();
+		try{
+			generate( text);
+		}catch( IOException ex){
+			//a StringBuilder does not throw.
+			throw new IllegalStateException( ex);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Writes a program. Nothing is kept in memory, so very large programs can
+	 * be written straight to a file.
+	 * @param out, where the program is written.
+	 * @return the number of lines written.
+	 * @throws IOException if the program cannot be written.
+	 */
+	public long generate( Appendable out) throws IOException{
+		this.out = out;
+		random = new Random( seed);
+		lines = 0;
+		indent = 0;
+		argumentCounts = new int[procedures + functions];
+
+		line( "program workload;");
+		declarations( "g", globals);
+		//procedures and functions are interleaved, so each can call both kinds.
+		int subprograms = procedures + functions;
+		for( int i = 0; i < subprograms; i++){
+			subprogram( i, isFunctionIndex( i));
+			if( i + 1 < subprograms){
+				append( ";");
+			}
+		}
+
+		line( "begin");
+		indent++;
+		for( int i = 0; i < statements || lines < targetLines; i++){
+			if( i > 0){
+				append( ";");
+			}
+			statement( nestingDepth, "g", globals, subprograms);
+		}
+		indent--;
+		line( "end");
+		line( ".");
+		out.append( '\n');
+		return lines;
+	}
+
+	//declares variables eight to a line.
+	private void declarations( String prefix, int count) throws IOException{
+		for( int i = 0; i < count; i += 8){
+			StringBuilder names = new StringBuilder( "var ");
+			for( int j = i; j < Math.min( count, i + 8); j++){
+				names.append( (j > i) ? ", " : "").append( prefix).append( j);
+			}
+			line( names.append( " : integer;").toString());
+		}
+	}
+
+	//writes subprogram number index, which may call the subprograms before it.
+	private void subprogram( int index, boolean isFunction) throws IOException{
+		int arguments = 1 + random.nextInt( 4);
+		argumentCounts[index] = arguments;
+		StringBuilder head = new StringBuilder( isFunction ? "function " : "procedure ");
+		head.append( name( index)).append( "( ");
+		for( int i = 0; i < arguments; i++){
+			head.append( (i > 0) ? ", " : "").append( "a").append( i);
+		}
+		head.append( " : integer)").append( isFunction ? " : integer;" : ";");
+		line( head.toString());
+
+		int locals = 2;
+		line( "var l0, l1 : integer;");
+		line( "begin");
+		indent++;
+		for( int i = 0; i < statements; i++){
+			if( i > 0){
+				append( ";");
+			}
+			//local statements use arguments and locals only.
+			statement( nestingDepth, (random.nextBoolean() ? "a" : "l"), Math.min( arguments, locals), index);
+		}
+		if( isFunction){
+			append( ";");
+			line( name( index) + " := " + expression( expressionDepth, "a", arguments, index));
+		}
+		indent--;
+		line( "end");
+	}
+
+	//writes one statement over the variables prefix0 to prefix(count - 1), calling subprograms below callable.
+	private void statement( int depth, String prefix, int count, int callable) throws IOException{
+		String variable = prefix + random.nextInt( count);
+		int choice = random.nextInt( 10);
+		if( depth > 0 && choice < 2){
+			line( "if " + condition( prefix, count, callable) + " then");
+			block( depth, prefix, count, callable);
+			if( random.nextBoolean()){
+				line( "else");
+				block( depth, prefix, count, callable);
+			}
+		}else if( depth > 0 && choice < 4){
+			line( "while " + variable + " < " + (1 + random.nextInt( 100)) + " do");
+			block( depth, prefix, count, callable);
+		}else if( choice == 4 && callable > 0 && isProcedure( callable)){
+			int callee = procedureBelow( callable);
+			line( name( callee) + "( " + arguments( argumentCounts[callee], prefix, count, callee) + ")");
+		}else if( choice == 5){
+			line( "write( " + expression( expressionDepth, prefix, count, callable) + ")");
+		}else{
+			line( variable + " := " + expression( expressionDepth, prefix, count, callable));
+		}
+	}
+
+	//writes a begin end block of one to three statements, one level deeper.
+	private void block( int depth, String prefix, int count, int callable) throws IOException{
+		line( "begin");
+		indent++;
+		int size = 1 + random.nextInt( 3);
+		for( int i = 0; i < size; i++){
+			if( i > 0){
+				append( ";");
+			}
+			statement( depth - 1, prefix, count, callable);
+		}
+		indent--;
+		line( "end");
+	}
+
+	private String condition( String prefix, int count, int callable){
+		return expression( 1 + random.nextInt( expressionDepth), prefix, count, callable)
+				+ " " + RELOPS[random.nextInt( RELOPS.length)] + " "
+				+ expression( 1, prefix, count, callable);
+	}
+
+	//builds an expression whose operator tree is depth levels deep.
+	private String expression( int depth, String prefix, int count, int callable){
+		if( depth <= 1){
+			int choice = random.nextInt( 8);
+			if( choice == 0 && callable > 0 && isFunction( callable)){
+				int callee = functionBelow( callable);
+				return name( callee) + "( " + arguments( argumentCounts[callee], prefix, count, callee) + ")";
+			}else if( choice < 3){
+				return Integer.toString( 1 + random.nextInt( 99));
+			}
+			return prefix + random.nextInt( count);
+		}
+		String operator = OPERATORS[random.nextInt( OPERATORS.length)];
+		String left = expression( depth - 1, prefix, count, callable);
+		//a constant divisor is never zero.
+		String right = operator.equals( "/") ? Integer.toString( 1 + random.nextInt( 9))
+				: expression( 1 + random.nextInt( depth - 1), prefix, count, callable);
+		return "(" + left + " " + operator + " " + right + ")";
+	}
+
+	//arguments are kept simple, so calls inside calls do not grow without end.
+	private String arguments( int arguments, String prefix, int count, int callable){
+		StringBuilder text = new StringBuilder();
+		for( int i = 0; i < arguments; i++){
+			text.append( (i > 0) ? ", " : "").append( prefix).append( random.nextInt( count));
+		}
+		return text.toString();
+	}
+
+	private String name( int index){
+		return isFunctionIndex( index) ? "func" + index : "proc" + index;
+	}
+
+	//matches the interleaving in generate(): odd numbers are functions while both kinds remain.
+	private boolean isFunctionIndex( int index){
+		int pairs = Math.min( procedures, functions) * 2;
+		if( index < pairs){
+			return index % 2 == 1;
+		}
+		return functions > procedures;
+	}
+
+	private boolean isFunction( int callable){
+		return functionBelow( callable) >= 0;
+	}
+
+	private boolean isProcedure( int callable){
+		return procedureBelow( callable) >= 0;
+	}
+
+	//picks a function declared before subprogram callable, or -1 if there is none.
+	private int functionBelow( int callable){
+		int start = random.nextInt( callable);
+		for( int i = 0; i < callable; i++){
+			int index = (start + i) % callable;
+			if( isFunctionIndex( index)){
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	//picks a procedure declared before subprogram callable, or -1 if there is none.
+	private int procedureBelow( int callable){
+		int start = random.nextInt( callable);
+		for( int i = 0; i < callable; i++){
+			int index = (start + i) % callable;
+			if(! isFunctionIndex( index)){
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	//starts a new line at the current indent.
+	private void line( String text) throws IOException{
+		if( lines > 0){
+			out.append( '\n');
+		}
+		for( int i = 0; i < indent; i++){
+			out.append( "  ");
+		}
+		out.append( text);
+		lines++;
+	}
+
+	//adds to the end of the current line.
+	private void append( String text) throws IOException{
+		out.append( text);
+	}
+
+	/**
+	 * Usage: [-g globals] [-p procedures] [-f functions] [-s statements] [-e expression depth]
+	 * [-d nesting depth] [-l lines] [--seed seed] [-o output file]
+	 * Writes the program to the output file, or to standard out.
+	 * @param args, the shape of the program.
+	 * @throws IOException if the program cannot be written.
+	 */
+	public static void main( String[] args) throws IOException{
+		WorkloadGenerator generator = new WorkloadGenerator();
+		String outputFile = null;
+		for( int i = 0; i + 1 < args.length; i += 2){
+			String value = args[i + 1];
+			if( args[i].equals( "-g")){
+				generator.setGlobals( Integer.parseInt( value));
+			}else if( args[i].equals( "-p")){
+				generator.setProcedures( Integer.parseInt( value));
+			}else if( args[i].equals( "-f")){
+				generator.setFunctions( Integer.parseInt( value));
+			}else if( args[i].equals( "-s")){
+				generator.setStatements( Integer.parseInt( value));
+			}else if( args[i].equals( "-e")){
+				generator.setExpressionDepth( Integer.parseInt( value));
+			}else if( args[i].equals( "-d")){
+				generator.setNestingDepth( Integer.parseInt( value));
+			}else if( args[i].equals( "-l")){
+				generator.setTargetLines( Long.parseLong( value));
+			}else if( args[i].equals( "--seed")){
+				generator.setSeed( Long.parseLong( value));
+			}else if( args[i].equals( "-o")){
+				outputFile = value;
+			}
+		}
+
+		Writer writer = new BufferedWriter( new OutputStreamWriter(
+				(outputFile != null) ? new FileOutputStream( outputFile) : System.out), 1 << 16);
+		long lines = generator.generate( writer);
+		writer.flush();
+		if( outputFile != null){
+			writer.close();
+			System.out.println( "Wrote " + lines + " lines to " + outputFile);
+		}
+	}
+}
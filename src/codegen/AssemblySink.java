@@ -0,0 +1,80 @@
+package codegen;
+
+import java.io.Closeable;
+
+/**
+ * Destination of the MIPS code built by the code generator. The code is
+ * appended piece by piece as it is generated, so a sink that writes straight
+ * to a file keeps memory use flat no matter how large the program is.
+ * Like a PrintWriter, a sink does not throw on an I/O failure; it remembers
+ * the failure and reports it through checkError().
+ * @author Allen Burgett
+ *
+ */
+public abstract class AssemblySink implements Closeable {
+
+	/**
+	 * Appends text to the output.
+	 * @param text, the text to append.
+	 * @return this sink, so appends can be chained.
+	 */
+	public abstract AssemblySink append( String text);
+
+	/**
+	 * Appends a single character to the output.
+	 * @param c, the character to append.
+	 * @return this sink, so appends can be chained.
+	 */
+	public abstract AssemblySink append( char c);
+
+	/**
+	 * Appends the decimal form of an integer to the output.
+	 * @param value, the integer to append.
+	 * @return this sink, so appends can be chained.
+	 */
+	public AssemblySink append( int value){
+		return append( Integer.toString( value));
+	}
+
+	/**
+	 * Appends the decimal form of a long integer to the output.
+	 * @param value, the integer to append.
+	 * @return this sink, so appends can be chained.
+	 */
+	public AssemblySink append( long value){
+		if( value == (int) value){
+			return append( (int) value);
+		}
+		return append( Long.toString( value));
+	}
+
+	/**
+	 * Appends the decimal form of a real to the output.
+	 * @param value, the real to append.
+	 * @return this sink, so appends can be chained.
+	 */
+	public AssemblySink append( double value){
+		return append( Double.toString( value));
+	}
+
+	/**
+	 * Pushes any buffered output to its destination.
+	 */
+	public void flush(){
+	}
+
+	/**
+	 * Flushes the output and releases the destination.
+	 */
+	public void close(){
+		flush();
+	}
+
+	/**
+	 *
+	 * @return true if writing to the destination has failed.
+	 */
+	public boolean checkError(){
+		return false;
+	}
+}
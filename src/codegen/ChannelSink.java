@@ -0,0 +1,127 @@
+package codegen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the MIPS code to a FileChannel through a direct buffer. ASCII text,
+ * which is all the code generator produces for ASCII sources, is copied into
+ * the buffer byte by byte without building intermediate strings or byte arrays.
+ * @author Allen Burgett
+ *
+ */
+public class ChannelSink extends AssemblySink {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect( BUFFER_SIZE);
+	private boolean error = false;
+
+	/**
+	 * Initializes a ChannelSink.
+	 * @param channel, an open channel the MIPS code is written to.
+	 */
+	public ChannelSink( FileChannel channel){
+		this.channel = channel;
+	}
+
+	@Override
+	public AssemblySink append( String text){
+		for( int i = 0; i < text.length(); i++){
+			char c = text.charAt( i);
+			//case non-ASCII text, the rest of the string is encoded as a whole.
+			if( c >= 0x80){
+				put( text.substring( i).getBytes( StandardCharsets.UTF_8));
+				return this;
+			}
+			if(! buffer.hasRemaining()){
+				drain();
+			}
+			buffer.put( (byte) c);
+		}
+		return this;
+	}
+
+	@Override
+	public AssemblySink append( char c){
+		if( c >= 0x80){
+			return append( String.valueOf( c));
+		}
+		if(! buffer.hasRemaining()){
+			drain();
+		}
+		buffer.put( (byte) c);
+		return this;
+	}
+
+	@Override
+	public AssemblySink append( int value){
+		//the most negative int has no positive counterpart.
+		if( value == Integer.MIN_VALUE){
+			return append( Integer.toString( value));
+		}
+		if( buffer.remaining() < 11){
+			drain();
+		}
+		if( value < 0){
+			buffer.put( (byte) '-');
+			value = -value;
+		}
+		//writes the digits from the most significant down.
+		int divisor = 1;
+		while( value / divisor >= 10){
+			divisor *= 10;
+		}
+		while( divisor > 0){
+			buffer.put( (byte) ('0' + (value / divisor) % 10));
+			divisor /= 10;
+		}
+		return this;
+	}
+
+	//copies raw bytes into the buffer, draining it as it fills.
+	private void put( byte[] bytes){
+		for( byte b : bytes){
+			if(! buffer.hasRemaining()){
+				drain();
+			}
+			buffer.put( b);
+		}
+	}
+
+	//writes the buffered bytes to the channel.
+	private void drain(){
+		buffer.flip();
+		try{
+			while( buffer.hasRemaining()){
+				channel.write( buffer);
+			}
+		}catch( IOException ex){
+			error = true;
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void flush(){
+		drain();
+	}
+
+	@Override
+	public void close(){
+		drain();
+		try{
+			channel.close();
+		}catch( IOException ex){
+			error = true;
+		}
+	}
+
+	@Override
+	public boolean checkError(){
+		return error;
+	}
+}
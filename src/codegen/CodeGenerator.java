@@ -1,10 +1,11 @@
 package codegen;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import parser.ArgumentSymbol;
 import parser.ProcedureSymbol;
+import parser.ScopeTable;
+import parser.StorageClass;
 import parser.Symbol;
 import parser.SymbolTable;
 import parser.VariableSymbol;
@@ -34,47 +35,61 @@ public class CodeGenerator {
 	private ProgramNode root;
 	private SymbolTable globalTable;
 	private int elseCount = 0;
-	//This is the output that will be printed to the .asm file.
-	private ArrayList<String> output = new ArrayList<String>();
+	//This is where the output that will be printed to the .asm file is written.
+	private AssemblySink output;
 	/**
 	 * Takes in a ProgramNode as the root of the tree. The Generator
-	 * references the symbol table directly for information about the
-	 * declarations.
+	 * reads the global variables from the symbol table, and finds every
+	 * other name through the Symbol the parser bound to its node. The
+	 * MIPS code is kept in memory and can be read back with getOutput().
 	 * @param program, a program represented as a tree.
 	 * @param table, the global symbol table, containing all declared symbols.
 	 */
 	public CodeGenerator( ProgramNode program, SymbolTable table){
+		this( program, table, new StringSink());
+	}
+	
+	/**
+	 * Takes in a ProgramNode as the root of the tree, and writes the MIPS
+	 * code to the given sink as it is generated.
+	 * @param program, a program represented as a tree.
+	 * @param table, the global symbol table, containing all declared symbols.
+	 * @param sink, destination of the MIPS code.
+	 */
+	public CodeGenerator( ProgramNode program, SymbolTable table, AssemblySink sink){
 		this.root = program;
 		this.globalTable = table;
+		this.output = sink;
 	}
 	
 	/**
 	 * Attempts to compile the tree to MIPS.
-	 * @return true if the compile was successful.
+	 * The sink is not flushed, so the caller can flush or close it when it chooses.
+	 * @return true if the compile was successful and no write to the sink has failed.
 	 */
 	public boolean compile(){
 		boolean isSuccess = true;
-		output.add("#Generated MIPS code for " + root.getName() + ".pas\n\n");
+		output.append("#Generated MIPS code for ").append( root.getName()).append(".pas\n\n");
 		//start the data section.
 		//This is where global variables are declared.
 		//__newline is declared to assist with the write procedure.
-		output.add(".data\n__newLine: .asciiz \"\\n\"\n");
+		output.append(".data\n__newLine: .asciiz \"\\n\"\n");
 		
 		//At this point, the only table on the stack is the global table.
 		//Thus, we can declare these variables as globals and they can be 
 		//used by all functions and procedures.
 		for(Symbol symbol : globalTable.getSymbols()){
 			if( symbol instanceof VariableSymbol){
-				output.add(symbol.getIdentifier() + ": .word 0\n");
+				output.append(symbol.getIdentifier()).append(": .word 0\n");
 			}
 		}
 		
 		//start of the program logic.
-		output.add("\n.text\n");
+		output.append("\n.text\n");
 		//declare a write procedure that takes a single argument and prints
 		//it to the console followed by a new line, then returns to the point
 		//at which it was called.
-		output.add("write:\naddi $sp, $sp, -4\nsw $ra, 0($sp)\nli $v0, 1\nsyscall\n"
+		output.append("write:\naddi $sp, $sp, -4\nsw $ra, 0($sp)\nli $v0, 1\nsyscall\n"
 				+ "li $v0, 4\nla $a0, __newLine\nsyscall\nlw $ra, 0($sp)\naddi $sp, $sp, 4\njr $ra\n");
 		
 		//processes the sub program code for all declared subs.
@@ -83,7 +98,7 @@ public class CodeGenerator {
 		}
 		
 		//start of the main function.
-		output.add("main:\naddi $sp, $sp, -4\nsw $ra, 0($sp)\n");
+		output.append("main:\naddi $sp, $sp, -4\nsw $ra, 0($sp)\n");
 		
 		//processes all the statements found in main.
 		for(StatementNode statement : root.getMain().getStatements()){
@@ -91,48 +106,45 @@ public class CodeGenerator {
 		}
 		
 		//end of the main function.
-		output.add("lw $ra, 0($sp)\naddi $sp, $sp, 4\njr $ra\n");
+		output.append("lw $ra, 0($sp)\naddi $sp, $sp, 4\njr $ra\n");
 		
-		return isSuccess;
+		return isSuccess && !output.checkError();
 	}
 	
 	//generates code for a single sub program.
 	private boolean subProgramGenerator( SubProgramNode subProgram){
 		boolean isSuccess = true;
-		String returnLocation = null; //used to keep track of the stack address of the return value.
+		VariableSymbol returnSymbol = null; //used to keep track of where the return value is kept.
 		String subId = subProgram.getName();
-		//creates an instance of the procedure to use to get information about the procedure.
-		ProcedureSymbol progSymbol = ((ProcedureSymbol)globalTable.getSymbol( subId));		
-		HashMap<String, Symbol> localTable = progSymbol.getLocalSymbolTable();
-		//push the current table on to the stack.
-		globalTable.pushTable(subId, localTable);
+		//the procedure's symbol, bound by the parser, holds its local symbols.
+		ProcedureSymbol progSymbol = subProgram.getSymbol();
+		ScopeTable localTable = progSymbol.getLocalSymbolTable();
 		//sub program label.
-		output.add(subId + ":\n");
+		output.append(subId).append(":\n");
 		
 		//checks the number of declared vars in this sub program, so the correct offset can
 		//be used with the frame pointer.
 		int varCount = 0;
-		for(Symbol symbol : globalTable.getSymbols()){ if(symbol instanceof VariableSymbol) varCount++;}
+		for(Symbol symbol : localTable.values()){ if(symbol instanceof VariableSymbol) varCount++;}
 		//adds offsets the frame pointer from the stack, to make room for the local variables.
-		output.add("addi $fp, $sp, " + (varCount * -4) + "\n");
+		output.append("addi $fp, $sp, ").append(varCount * -4).append('\n');
 		//Initializes the arguments and local variables to their place in the stack.
-		for(Symbol symbol : globalTable.getSymbols()){
+		for(Symbol symbol : localTable.values()){
 			if( symbol instanceof ArgumentSymbol){
 				int argNum = ((ArgumentSymbol)symbol).getArgNum();
-				String dataString = ((ArgumentSymbol)symbol).getDataIdentifier();
-				output.add("sw $a" + argNum + ", " + dataString + "\n");
+				store( 'a', argNum, (ArgumentSymbol)symbol);
 			}else if( symbol instanceof VariableSymbol){
-				String dataString = ((VariableSymbol) symbol).getDataIdentifier();
-				output.add("li $t0, 0\nsw $t0, " + dataString + "\n");
+				output.append("li $t0, 0\n");
+				store( 't', 0, (VariableSymbol) symbol);
 				if( symbol.getIdentifier().equals(subId)){
-					returnLocation = dataString;
+					returnSymbol = (VariableSymbol) symbol;
 				}
 			}
 		}
 		
 		//Offsets the stack one value over the frame pointer and stores the return address
 		//to the top of the stack.
-		output.add("addi $sp, $fp, -4\nsw $ra, 0($sp)\n");
+		output.append("addi $sp, $fp, -4\nsw $ra, 0($sp)\n");
 		
 		//generates the code for all statements in the sub.
 		for(StatementNode statement : subProgram.getMain().getStatements()){
@@ -141,12 +153,13 @@ public class CodeGenerator {
 		
 		//if the sub is a function, then the data in the return address is stored in $v0.
 		if( subProgram.getSubType() == Keywords.FUNCTION){
-			output.add("lw $t0, " + returnLocation + "\nadd $v0, $t0, $zero\n");
+			load( 0, returnSymbol);
+			output.append("add $v0, $t0, $zero\n");
 		}
 		
 		//loads the return address and moves the stack pointer back to it's pre-call 
 		//position. Then jumps back to point the sub was called from.
-		output.add("lw $ra, 0($sp)\naddi $sp, $sp, " + ((varCount + 1) * 4) + "\njr $ra\n");
+		output.append("lw $ra, 0($sp)\naddi $sp, $sp, ").append((varCount + 1) * 4).append("\njr $ra\n");
 		
 		return isSuccess;
 	}
@@ -176,21 +189,22 @@ public class CodeGenerator {
 	private boolean assignmentGenerator( AssignmentStatementNode assignment){
 		boolean isSuccess = true;
 		int t_val = 0; //the assignment starts at the first t register.
-		String varName = assignment.getLvalue().getName();
-		//location of the variable that is being assigned.
-		String dataString = ((VariableSymbol) globalTable.getSymbol( varName)).getDataIdentifier();
+		//the variable that is being assigned.
+		VariableSymbol variable = (VariableSymbol) assignment.getLvalue().getSymbol();
 		
 		//case the expression is already a value.
 		if( assignment.getExpression() instanceof ValueNode){			
-			String val = ((ValueNode)assignment.getExpression()).getAttribute();
 			//assign the value to the variable.
-			output.add("li $t0, " + val + "\nsw $t0, " + dataString + "\n");
+			output.append("li $t0, ");
+			appendValue( (ValueNode)assignment.getExpression());
+			output.append('\n');
+			store( 't', 0, variable);
 		//case the value needs to be evaluated.
 		}else{
 			//generates the code to evaluate the expression.
 			expressionGenerator( assignment.getExpression(), t_val);
 			//assigns the result to the variable.
-			output.add("sw $t" + t_val + ", " + dataString + "\n");
+			store( 't', t_val, variable);
 		}	
 		
 		return isSuccess;
@@ -210,21 +224,61 @@ public class CodeGenerator {
 			t_val = functionCallGeneratior( (FunctionNode) expression);
 		//case the expression is a Variable.
 		}else if( expression instanceof VariableNode){
-			String varId = ((VariableNode) expression).getName();
-			String varName = ((VariableSymbol) globalTable.getSymbol( varId)).getDataIdentifier();
-			//loads the current value of the variable from memory or the stack.
-			output.add("lw $t" + t_val + ", " + varName + "\n");
+			//loads the current value of the variable from memory, the stack or its register.
+			load( t_val, (VariableSymbol) ((VariableNode) expression).getSymbol());
 		}
 		
 		//case the expression is a value.
 		if( expression instanceof ValueNode){
 			//sets the current t register to the expressed value.
-			output.add("li $t" + t_val + ", " + ((ValueNode) expression).getAttribute() + "\n");
+			output.append("li $t").append(t_val).append(", ");
+			appendValue( (ValueNode) expression);
+			output.append('\n');
 		}
 		
 		return t_val;
 	}
 	
+	//loads a variable in to a t register.
+	private void load( int t_val, VariableSymbol variable){
+		if( variable.getStorageClass() == StorageClass.REGISTER){
+			output.append("add $t").append(t_val).append(", $s").append(variable.getOffset()).append(", $zero\n");
+		}else{
+			output.append("lw $t").append(t_val).append(", ");
+			appendLocation( variable);
+			output.append('\n');
+		}
+	}
+	
+	//stores a register, such as $t0 or $a1, in to a variable.
+	private void store( char kind, int number, VariableSymbol variable){
+		if( variable.getStorageClass() == StorageClass.REGISTER){
+			output.append("add $s").append(variable.getOffset()).append(", $").append(kind).append(number).append(", $zero\n");
+		}else{
+			output.append("sw $").append(kind).append(number).append(", ");
+			appendLocation( variable);
+			output.append('\n');
+		}
+	}
+	
+	//writes the address of a variable kept in memory: its label, or its offset from the frame pointer.
+	private void appendLocation( VariableSymbol variable){
+		if( variable.getStorageClass() == StorageClass.FRAME){
+			output.append( variable.getOffset()).append("($fp)");
+		}else{
+			output.append( variable.getIdentifier());
+		}
+	}
+	
+	//writes the value of a number straight from its long or double.
+	private void appendValue( ValueNode value){
+		if( value.getType() == Keywords.REAL){
+			output.append( value.getRealValue());
+		}else{
+			output.append( value.getIntegerValue());
+		}
+	}
+	
 	//handles code generation of operations.
 	private int operationGenerator( OperationNode operation, int t_val){
 		int t_left = 0; //t register that the result of the left expression will be put in.
@@ -253,30 +307,30 @@ public class CodeGenerator {
 		//from a low register. 
 		if( opType == Keywords.DIVIDE || opType == Keywords.DIV || opType == Keywords.TIMES){
 			if( opType == Keywords.DIVIDE || opType == Keywords.DIV){
-				output.add("div $t" + t_left + ", $t" + t_right + "\n");
+				output.append("div $t").append(t_left).append(", $t").append(t_right).append('\n');
 			}else if( opType == Keywords.TIMES){
-				output.add("mult $t" + t_left + ", $t" + t_right + "\n");
+				output.append("mult $t").append(t_left).append(", $t").append(t_right).append('\n');
 			}			
-			output.add("mflo $t" + t_val + "\n");
+			output.append("mflo $t").append(t_val).append('\n');
 		}else if( opType == Keywords.PLUS){
-			output.add("add $t" + t_val + ", $t" + t_left + ", $t" + t_right + "\n");
+			output.append("add $t").append(t_val).append(", $t").append(t_left).append(", $t").append(t_right).append('\n');
 		}else if( opType == Keywords.MINUS){
-			output.add("sub $t" + t_val + ", $t" + t_left + ", $t" + t_right + "\n");
+			output.append("sub $t").append(t_val).append(", $t").append(t_left).append(", $t").append(t_right).append('\n');
 		//case modulus, the result is stored in the high register after division.
 		}else if( opType == Keywords.MOD){
-			output.add("div $t" + t_left + ", $t" + t_right + "\nmfhi $t" + (t_right + 1) + "\n");
+			output.append("div $t").append(t_left).append(", $t").append(t_right).append("\nmfhi $t").append(t_right + 1).append('\n');
 		}else if( opType == Keywords.LESS_THAN){
-			output.add("bge $t" + t_left + ", $t" + t_right + ", Else" + elseCount + "\n");
+			branch( "bge", t_left, t_right);
 		}else if( opType == Keywords.EQUALITY_OPERATOR){
-			output.add("bne $t" + t_left + ", $t" + t_right + ", Else" + elseCount + "\n");
+			branch( "bne", t_left, t_right);
 		}else if( opType == Keywords.NOT_EQUAL){
-			output.add("beq $t" + t_left + ", $t" + t_right + ", Else" + elseCount + "\n");
+			branch( "beq", t_left, t_right);
 		}else if( opType == Keywords.LESS_THAN_EQUAL_TO){
-			output.add("bgt $t" + t_left + ", $t" + t_right + ", Else" + elseCount + "\n");
+			branch( "bgt", t_left, t_right);
 		}else if( opType == Keywords.GREATER_THAN){
-			output.add("ble $t" + t_left + ", $t" + t_right + ", Else" + elseCount + "\n");
+			branch( "ble", t_left, t_right);
 		}else if( opType == Keywords.GREATER_THAN_EQUAL_TO){
-			output.add("blt $t" + t_left + ", $t" + t_right + ", Else" + elseCount + "\n");
+			branch( "blt", t_left, t_right);
 		}
 		
 		return t_val;
@@ -291,7 +345,7 @@ public class CodeGenerator {
 		//In Mini-Pascal, a value less than 0 is false
 		if( statement.getTest() instanceof ValueNode || statement.getTest() instanceof VariableNode){
 			t_val = expressionGenerator( statement.getTest(), t_val);
-			output.add("blt $zero, $t" + t_val + ", Else" + elseCount + "\n");
+			output.append("blt $zero, $t").append(t_val).append(", Else").append(elseCount).append('\n');
 		//case operation for branching.
 		}else if( statement.getTest() instanceof OperationNode){
 			t_val = operationGenerator( (OperationNode) statement.getTest(), t_val);
@@ -300,11 +354,11 @@ public class CodeGenerator {
 		//generate the true statement
 		isSuccess = statementGenerator( statement.getThenStatement());
 		//jump past the else case
-		output.add("jal End_IF" + elseCount + "\nElse" + elseCount + ":\n");
+		output.append("jal End_IF").append(elseCount).append("\nElse").append(elseCount).append(":\n");
 		//generate the false statement
 		isSuccess = statementGenerator( statement.getElseStatement());
 		//label for the end of the if-block.
-		output.add("End_IF" + elseCount + ":\n");
+		output.append("End_IF").append(elseCount).append(":\n");
 		
 		
 		return isSuccess;
@@ -319,12 +373,12 @@ public class CodeGenerator {
 		//generates code to pass the value of each argument into the a registers.
 		for( ExpressionNode expression : procedure.getExpressions()){
 			t_val = expressionGenerator( expression, t_val);
-			output.add("add $a" + a_val + ", $zero, $t" + t_val + "\n");
+			output.append("add $a").append(a_val).append(", $zero, $t").append(t_val).append('\n');
 			a_val++;
 		}
 		
 		//jump to the procedure label.
-		output.add("jal " + procedure.getLvalue().getName() + "\n");
+		output.append("jal ").append(procedure.getSymbol().getIdentifier()).append('\n');
 		
 		return isSuccess;
 	}
@@ -337,12 +391,12 @@ public class CodeGenerator {
 		//generates code to pass the value of each argument into the a registers.
 		for( ExpressionNode expression : function.getExpNode()){
 			t_val = expressionGenerator( expression, t_val);
-			output.add("add $a" + a_val + ", $zero, $t" + t_val + "\n");
+			output.append("add $a").append(a_val).append(", $zero, $t").append(t_val).append('\n');
 			a_val++;
 		}
 		
 		//jump to the function label and place the result of the function in the specified t register.
-		output.add("jal " + function.getName() + "\nadd $t" + t_val + ", $v0, $zero\n");
+		output.append("jal ").append(function.getSymbol().getIdentifier()).append("\nadd $t").append(t_val).append(", $v0, $zero\n");
 		return t_val;
 	}
 	
@@ -354,11 +408,11 @@ public class CodeGenerator {
 		//similarly to the if statement, the else count is used to label the jump on false.
 		elseCount = statement.getElseCount();
 		//while start label, used to jump back to the beginning of the loop.
-		output.add("Start_While" + elseCount + ":\n");
+		output.append("Start_While").append(elseCount).append(":\n");
 		//In Mini-Pascal, a value less than 0 is false
 		if( statement.getTest() instanceof ValueNode || statement.getTest() instanceof VariableNode){
 			t_val = expressionGenerator( statement.getTest(), t_val);
-			output.add("blt $zero, $t" + t_val + ", Else" + elseCount + "\n");
+			output.append("blt $zero, $t").append(t_val).append(", Else").append(elseCount).append('\n');
 		//case branching operation.
 		}else if( statement.getTest() instanceof OperationNode){
 			t_val = operationGenerator( (OperationNode) statement.getTest(), t_val);
@@ -367,18 +421,40 @@ public class CodeGenerator {
 		//the statement that will be done until the while test evaluates false.
 		isSuccess = statementGenerator( statement.getThenStatement());
 		//jump to the start of the loop and label the end of the while loop.
-		output.add("jal Start_While" + elseCount + "\nElse" + elseCount + ":\n");
+		output.append("jal Start_While").append(elseCount).append("\nElse").append(elseCount).append(":\n");
 		
 		return isSuccess;
 	}
 	
+	//emits a branch to the current else label, taken when the relation does not hold.
+	private void branch( String instruction, int t_left, int t_right){
+		output.append( instruction).append(" $t").append(t_left).append(", $t").append(t_right)
+			.append(", Else").append(elseCount).append('\n');
+	}
+	
 	/**
 	 * Output contains a list of strings, with \n already placed. This can be
 	 * printed as is and will represent the MIPS representation of the Program
-	 * that was passed.
+	 * that was passed. Each string is one line of the code.
 	 * @return an ArrayList of strings that represent the MIPS code for the original program.
+	 * @throws IllegalStateException if the code was not kept in memory, but written to another sink.
 	 */
 	public ArrayList<String> getOutput(){
-		return output;
+		if(! (output instanceof StringSink)){
+			throw new IllegalStateException( "the MIPS code was written to " + output.getClass().getSimpleName() + ", not kept in memory");
+		}
+		String code = output.toString();
+		ArrayList<String> lines = new ArrayList<String>();
+		int start = 0;
+		for( int i = 0; i < code.length(); i++){
+			if( code.charAt( i) == '\n'){
+				lines.add( code.substring( start, i + 1));
+				start = i + 1;
+			}
+		}
+		if( start < code.length()){
+			lines.add( code.substring( start));
+		}
+		return lines;
 	}
 }
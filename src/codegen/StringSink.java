@@ -0,0 +1,50 @@
+package codegen;
+
+/**
+ * Collects the MIPS code in memory.
+ * @author Allen Burgett
+ *
+ */
+public class StringSink extends AssemblySink {
+
+	private StringBuilder text = new StringBuilder();
+
+	@Override
+	public AssemblySink append( String text){
+		this.text.append( text);
+		return this;
+	}
+
+	@Override
+	public AssemblySink append( char c){
+		text.append( c);
+		return this;
+	}
+
+	@Override
+	public AssemblySink append( int value){
+		text.append( value);
+		return this;
+	}
+
+	@Override
+	public AssemblySink append( long value){
+		text.append( value);
+		return this;
+	}
+
+	@Override
+	public AssemblySink append( double value){
+		text.append( value);
+		return this;
+	}
+
+	/**
+	 *
+	 * @return the MIPS code collected so far.
+	 */
+	@Override
+	public String toString(){
+		return text.toString();
+	}
+}
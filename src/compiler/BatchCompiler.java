@@ -0,0 +1,271 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import scanner.IdentifierTable;
+
+/**
+ * Compiles many Mini-Pascal files in a single run. The files are compiled
+ * concurrently on a work-stealing pool, so the JVM start up and JIT warm up
+ * are paid once for the whole batch instead of once per file. Every file is
+ * compiled by {@link CompilerMain#compile(File, String, CompileCache, PhaseTimer, java.util.concurrent.ConcurrentMap)}, which builds its own
+ * parser, symbol table and code generator, so no compiler state is shared
+ * between workers.
+ * Output is named after the program, so each worker claims the name of the
+ * program it has parsed before writing, and a source declaring a program
+ * name another has claimed is failed rather than written over its output.
+ * What each file's compile prints is kept until it is done, and printed in
+ * one piece, in the order the files were added.
+ * @author Allen Burgett
+ *
+ */
+public class BatchCompiler {
+
+	private ArrayList<File> sources = new ArrayList<File>();
+	private String outputLocation;
+	private int parallelism;
+	private CompileCache cache = null;
+	private PhaseTimer timer = null;
+
+	/**
+	 * Initializes a BatchCompiler.
+	 * @param outputLocation, directory the .asm files are written to, or null for the working directory.
+	 * @param parallelism, number of worker threads to compile with.
+	 */
+	public BatchCompiler( String outputLocation, int parallelism){
+		//the output location is used as a prefix, so it must end with a separator.
+		if( outputLocation != null && !outputLocation.endsWith( File.separator)){
+			outputLocation += File.separator;
+		}
+		this.outputLocation = outputLocation;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Adds a source to the batch. If the path is a directory, every .pas file
+	 * found under it is added.
+	 * @param path, a Mini-Pascal file or a directory of them.
+	 */
+	public void addSource( File path){
+		if( path.isDirectory()){
+			File[] children = path.listFiles();
+			if( children != null){
+				//sorted, so which of two sources of one program is compiled does not depend on the file system.
+				Arrays.sort( children);
+				for( File child : children){
+					if( child.isDirectory() || child.getName().endsWith( ".pas")){
+						addSource( child);
+					}
+				}
+			}
+		}else{
+			sources.add( path);
+		}
+	}
+
+	/**
+	 * Sets a cache of earlier compiles, shared by all workers.
+	 * @param cache, cache to reuse output from, or null to always compile.
+	 */
+	public void setCache( CompileCache cache){
+		this.cache = cache;
+	}
+
+	/**
+	 * Sets a timer that the phase times of every file are added to.
+	 * @param timer, timer for the whole batch, or null for no timing.
+	 */
+	public void setTimer( PhaseTimer timer){
+		this.timer = timer;
+	}
+
+	/**
+	 *
+	 * @return the files that will be compiled.
+	 */
+	public ArrayList<File> getSources(){
+		return sources;
+	}
+
+	/**
+	 * Compiles every source in the batch and prints a summary of the successes,
+	 * failures and the time the batch took.
+	 * @return true if every source compiled.
+	 */
+	public boolean compileAll(){
+		long startTime = System.currentTimeMillis();
+		int succeeded = 0;
+		int failed = 0;
+
+		//create the output directory once, rather than letting the workers race to create it.
+		if( outputLocation != null){
+			new File( outputLocation).mkdirs();
+		}
+
+		//the first source to claim each program name, which the others with it would write over.
+		final ConcurrentHashMap<String, File> programs = new ConcurrentHashMap<String, File>();
+		//what each worker prints is kept, and printed in one piece in the order of the sources.
+		PrintStream out = System.out;
+		final ThreadOutput output = new ThreadOutput( out);
+		System.setOut( new PrintStream( output, true));
+		try{
+			ForkJoinPool pool = new ForkJoinPool( parallelism);
+			ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			final byte[][] printed = new byte[sources.size()][];
+			for( int i = 0; i < sources.size(); i++){
+				final int index = i;
+				final File source = sources.get( i);
+				results.add( pool.submit( new Callable<Boolean>(){
+					public Boolean call() throws Exception{
+						//each worker times its own compile, then adds it to the batch total.
+						PhaseTimer fileTimer = (timer != null) ? new PhaseTimer() : null;
+						output.capture();
+						try{
+							boolean success = CompilerMain.compile( source, outputLocation, cache, fileTimer, programs);
+							if( timer != null){
+								timer.merge( fileTimer);
+							}
+							return success;
+						}finally{
+							printed[index] = output.release();
+						}
+					}
+				}));
+			}
+
+			for( int i = 0; i < results.size(); i++){
+				boolean success = false;
+				String error = null;
+				try{
+					success = results.get( i).get();
+				}catch( ExecutionException ex){
+					error = "Error compiling " + sources.get( i) + ": " + ex.getCause();
+				}catch( InterruptedException ex){
+					Thread.currentThread().interrupt();
+				}
+				if( printed[i] != null){
+					out.write( printed[i], 0, printed[i].length);
+				}
+				if( error != null){
+					out.println( error);
+				}
+				if( success){
+					succeeded++;
+				}else{
+					failed++;
+					out.println( "Failed: " + sources.get( i));
+				}
+			}
+			pool.shutdown();
+		}finally{
+			System.setOut( out);
+		}
+		//the names of this batch are forgotten, so a later batch in the same JVM starts afresh.
+		IdentifierTable.reset();
+
+		long endTime = System.currentTimeMillis();
+		System.out.println( "Batch compile: " + succeeded + " succeeded, " + failed + " failed, "
+				+ sources.size() + " files in " + (endTime - startTime) + "ms.");
+		if( timer != null){
+			System.out.print( timer.report());
+		}
+		return failed == 0;
+	}
+
+	/**
+	 * Usage: --batch [-o output location] [-j threads] [--time-report] [--cache directory [--cache-size megabytes]]
+	 * files or directories...
+	 * Exits with a non-zero status if any file failed to compile.
+	 * @param args, options followed by the files and directories to compile.
+	 */
+	public static void main( String[] args){
+		String outputLocation = null;
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		ArrayList<File> paths = new ArrayList<File>();
+		String cacheDir = null;
+		long cacheSize = CompileCache.DEFAULT_MAX_BYTES;
+		PhaseTimer timer = null;
+
+		for( int i = 0; i < args.length; i++){
+			if( args[i].equals( "--time-report")){
+				timer = new PhaseTimer();
+			}else if( args[i].equals( "-o") && i + 1 < args.length){
+				outputLocation = args[++i];
+			}else if( args[i].equals( "-j") && i + 1 < args.length){
+				parallelism = Integer.parseInt( args[++i]);
+			}else if( args[i].equals( "--cache") && i + 1 < args.length){
+				cacheDir = args[++i];
+			}else if( args[i].equals( "--cache-size") && i + 1 < args.length){
+				cacheSize = Long.parseLong( args[++i]) * 1024 * 1024;
+			}else{
+				paths.add( new File( args[i]));
+			}
+		}
+
+		BatchCompiler batch = new BatchCompiler( outputLocation, parallelism);
+		batch.setTimer( timer);
+		if( cacheDir != null){
+			batch.setCache( new CompileCache( new File( cacheDir), cacheSize));
+		}
+		for( File path : paths){
+			batch.addSource( path);
+		}
+		if(! batch.compileAll()){
+			System.exit( 1);
+		}
+	}
+
+	//writes to a buffer kept for the current thread while it has one, and otherwise to the stream given.
+	private static class ThreadOutput extends OutputStream {
+
+		private final OutputStream out;
+		private final ThreadLocal<ByteArrayOutputStream> buffers = new ThreadLocal<ByteArrayOutputStream>();
+
+		ThreadOutput( OutputStream out){
+			this.out = out;
+		}
+
+		//starts keeping what the current thread writes.
+		void capture(){
+			buffers.set( new ByteArrayOutputStream());
+		}
+
+		//stops keeping what the current thread writes, and returns what it wrote.
+		byte[] release(){
+			ByteArrayOutputStream buffer = buffers.get();
+			buffers.remove();
+			return buffer.toByteArray();
+		}
+
+		private OutputStream target(){
+			ByteArrayOutputStream buffer = buffers.get();
+			return (buffer != null) ? buffer : out;
+		}
+
+		@Override
+		public void write( int b) throws IOException{
+			target().write( b);
+		}
+
+		@Override
+		public void write( byte[] b, int off, int len) throws IOException{
+			target().write( b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException{
+			target().flush();
+		}
+	}
+}
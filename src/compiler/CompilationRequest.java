@@ -0,0 +1,85 @@
+package compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * A Mini-Pascal program to be compiled by {@link MiniPascalCompiler}, given
+ * as text in memory, as a stream of text, or as the bytes of a source file.
+ * @author Allen Burgett
+ *
+ */
+public class CompilationRequest {
+
+	private CharSequence text = null;
+	private Reader reader = null;
+	private byte[] source = null;
+	private boolean timing = false;
+
+	/**
+	 * Initializes a CompilationRequest for program text held in memory.
+	 * @param text, the Mini-Pascal program.
+	 */
+	public CompilationRequest( CharSequence text){
+		this.text = text;
+	}
+
+	/**
+	 * Initializes a CompilationRequest for a program read from a stream. The
+	 * stream is read to its end but is not closed.
+	 * @param reader, stream of the Mini-Pascal program.
+	 */
+	public CompilationRequest( Reader reader){
+		this.reader = reader;
+	}
+
+	/**
+	 * Initializes a CompilationRequest for the bytes of a source file, which
+	 * are scanned as a command line compile scans the file.
+	 * @param source, every byte of the source file.
+	 */
+	public CompilationRequest( byte[] source){
+		this.source = source;
+	}
+
+	/**
+	 *
+	 * @return the bytes of the source file, or null if the program was given as text.
+	 */
+	public byte[] getSource(){
+		return source;
+	}
+
+	/**
+	 *
+	 * @return a reader over the program text.
+	 */
+	public Reader getReader(){
+		if( reader != null){
+			return reader;
+		}
+		if( source != null){
+			return new InputStreamReader( new ByteArrayInputStream( source));
+		}
+		return new StringReader( text.toString());
+	}
+
+	/**
+	 * Turns on timing of scanning and folding, which are otherwise counted
+	 * as part of parsing. Timing adds a clock read around every token.
+	 * @param timing, true to time scanning and folding apart from parsing.
+	 */
+	public void setTiming( boolean timing){
+		this.timing = timing;
+	}
+
+	/**
+	 *
+	 * @return true if scanning and folding are timed apart from parsing.
+	 */
+	public boolean isTiming(){
+		return timing;
+	}
+}
@@ -0,0 +1,78 @@
+package compiler;
+
+import java.util.List;
+
+import scanner.Diagnostic;
+
+/**
+ * The outcome of compiling a {@link CompilationRequest}: the MIPS code if
+ * the compile succeeded, the errors and warnings found along the way, and
+ * the time spent in each phase.
+ * @author Allen Burgett
+ *
+ */
+public class CompilationResult {
+
+	private boolean success;
+	private String programName;
+	private String assembly;
+	private List<Diagnostic> diagnostics;
+	private PhaseTimer timer;
+
+	/**
+	 * Initializes a CompilationResult.
+	 * @param success, true if the program compiled.
+	 * @param programName, name of the program, or null if it was not found.
+	 * @param assembly, the MIPS code, or null if the program did not compile.
+	 * @param diagnostics, errors and warnings found while compiling.
+	 * @param timer, time spent in each phase.
+	 */
+	public CompilationResult( boolean success, String programName, String assembly,
+			List<Diagnostic> diagnostics, PhaseTimer timer){
+		this.success = success;
+		this.programName = programName;
+		this.assembly = assembly;
+		this.diagnostics = diagnostics;
+		this.timer = timer;
+	}
+
+	/**
+	 *
+	 * @return true if the program compiled.
+	 */
+	public boolean isSuccess(){
+		return success;
+	}
+
+	/**
+	 *
+	 * @return the name the program declares, or null if it was not found.
+	 */
+	public String getProgramName(){
+		return programName;
+	}
+
+	/**
+	 *
+	 * @return the MIPS code of the program, or null if it did not compile.
+	 */
+	public String getAssembly(){
+		return assembly;
+	}
+
+	/**
+	 *
+	 * @return the scanner's warnings followed by the parser's errors, each in the order they were found.
+	 */
+	public List<Diagnostic> getDiagnostics(){
+		return diagnostics;
+	}
+
+	/**
+	 *
+	 * @return the time spent in each phase of the compile.
+	 */
+	public PhaseTimer getTimer(){
+		return timer;
+	}
+}
@@ -0,0 +1,191 @@
+package compiler;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An on-disk cache of compiled programs. Entries are keyed on a hash of the
+ * source bytes, the compiler version and the compile options, so an unchanged
+ * source can be copied from the cache instead of being parsed and generated
+ * again.
+ *
+ * Each entry is a single file whose first line is the program name and whose
+ * remaining text is the MIPS code. Entries are written to a temporary file and
+ * then moved in to place, so concurrent builds sharing the directory never read
+ * a partial entry. When the entries grow past the size cap, the least recently
+ * used entries are removed.
+ * The size of the entries is counted once, then kept as a running total of
+ * what this process writes, so the directory is only listed again when the
+ * total goes over the cap. Eviction sorts on the times and sizes read once
+ * per entry, as other builds sharing the cache touch entries while it runs.
+ * Entries of one CompileCache may be put from many threads.
+ * @author Allen Burgett
+ *
+ */
+public class CompileCache {
+
+	/** Size cap used when none is given, in bytes. */
+	public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+	private static final String ENTRY_SUFFIX = ".entry";
+
+	private File directory;
+	private long maxBytes;
+	//size of the entries as last counted plus what has been put since, -1 before the first count.
+	private long total = -1;
+
+	/**
+	 * Initializes a CompileCache. The directory is created if it does not exist.
+	 * @param directory, directory the entries are kept in.
+	 * @param maxBytes, total size the entries may take before old ones are removed.
+	 */
+	public CompileCache( File directory, long maxBytes){
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		directory.mkdirs();
+	}
+
+	/**
+	 * Builds the key for a source.
+	 * @param source, the bytes of the Mini-Pascal source.
+	 * @param options, the options the source is compiled with.
+	 * @return a hex string naming the cache entry.
+	 */
+	public String key( byte[] source, String options){
+		try{
+			MessageDigest digest = MessageDigest.getInstance( "SHA-256");
+			digest.update( (CompilerMain.VERSION + "\0" + options + "\0").getBytes( StandardCharsets.UTF_8));
+			digest.update( source);
+			StringBuilder hex = new StringBuilder();
+			for( byte b : digest.digest()){
+				hex.append( Character.forDigit( (b >> 4) & 0xF, 16));
+				hex.append( Character.forDigit( b & 0xF, 16));
+			}
+			return hex.toString();
+		}catch( NoSuchAlgorithmException ex){
+			//every Java platform is required to support SHA-256.
+			throw new IllegalStateException( ex);
+		}
+	}
+
+	/**
+	 * Looks up a compiled program. A hit marks the entry as recently used.
+	 * @param key, key of the source as built by key().
+	 * @return the program name followed by its MIPS code, or null on a miss.
+	 */
+	public String[] get( String key){
+		File entry = new File( directory, key + ENTRY_SUFFIX);
+		try{
+			String text = new String( Files.readAllBytes( entry.toPath()), StandardCharsets.UTF_8);
+			int newLine = text.indexOf( '\n');
+			if( newLine < 0){
+				return null;
+			}
+			entry.setLastModified( System.currentTimeMillis());
+			return new String[]{ text.substring( 0, newLine), text.substring( newLine + 1)};
+		}catch( IOException ex){
+			//case the entry does not exist or was just evicted.
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a compiled program and evicts old entries if the cache is over its cap.
+	 * A failure to write is ignored, as the cache is only an optimization.
+	 * @param key, key of the source as built by key().
+	 * @param programName, name of the compiled program.
+	 * @param assembly, the MIPS code of the program.
+	 */
+	public void put( String key, String programName, String assembly){
+		File entry = new File( directory, key + ENTRY_SUFFIX);
+		File temp = null;
+		byte[] bytes = (programName + "\n" + assembly).getBytes( StandardCharsets.UTF_8);
+		try{
+			temp = File.createTempFile( key, ".tmp", directory);
+			Files.write( temp.toPath(), bytes);
+			try{
+				Files.move( temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}catch( AtomicMoveNotSupportedException ex){
+				Files.move( temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}catch( IOException ex){
+			if( temp != null){
+				temp.delete();
+			}
+			return;
+		}
+		added( bytes.length);
+	}
+
+	//adds a new entry to the running total, and evicts once it is over the cap.
+	private synchronized void added( long size){
+		if( total < 0){
+			total = 0;
+			for( long length : snapshot( listEntries())[1]){
+				total += length;
+			}
+		}else{
+			total += size;
+		}
+		if( total > maxBytes){
+			evict();
+		}
+	}
+
+	//removes the least recently used entries until the cache is under its cap,
+	//and sets the total to the size of the entries that are left.
+	private void evict(){
+		File[] entries = listEntries();
+		long[][] snapshot = snapshot( entries);
+		final long[] times = snapshot[0];
+		long[] sizes = snapshot[1];
+		total = 0;
+		Integer[] order = new Integer[entries.length];
+		for( int i = 0; i < entries.length; i++){
+			order[i] = i;
+			total += sizes[i];
+		}
+		//sorted on the snapshot, which other builds cannot change part way through.
+		Arrays.sort( order, new Comparator<Integer>(){
+			public int compare( Integer a, Integer b){
+				return Long.compare( times[a], times[b]);
+			}
+		});
+		for( int i = 0; i < order.length && total > maxBytes; i++){
+			//another build may have already removed it.
+			if( entries[order[i]].delete()){
+				total -= sizes[order[i]];
+			}
+		}
+	}
+
+	//the entry files, leaving out the temporary files of entries being written.
+	private File[] listEntries(){
+		File[] entries = directory.listFiles( new FileFilter(){
+			public boolean accept( File file){
+				return file.getName().endsWith( ENTRY_SUFFIX);
+			}
+		});
+		return (entries != null) ? entries : new File[0];
+	}
+
+	//the last modified time and size of each file, read once.
+	private static long[][] snapshot( File[] entries){
+		long[] times = new long[entries.length];
+		long[] sizes = new long[entries.length];
+		for( int i = 0; i < entries.length; i++){
+			times[i] = entries[i].lastModified();
+			sizes[i] = entries[i].length();
+		}
+		return new long[][]{ times, sizes};
+	}
+}
@@ -0,0 +1,94 @@
+package compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Thin launcher that hands a compile to a running {@link CompileServer}.
+ * Takes the same arguments as {@link CompilerMain}. If no server is
+ * listening, its token file cannot be read, or other options are given,
+ * the compile is done in this process instead.
+ * The server sends back the MIPS code, and the client writes the .asm file
+ * itself, where an in process compile would write it.
+ * The port can be set with -Dminipascal.port.
+ * @author Allen Burgett
+ *
+ */
+public class CompileClient {
+
+	//how long to wait for a server to accept before compiling in process.
+	private static final int CONNECT_TIMEOUT = 200;
+
+	/**
+	 * Takes in the path of the Mini-Pascal code and an optional output location.
+	 * @param args, file path from the command line point.
+	 * @throws FileNotFoundException if compiling in process and the output cannot be written.
+	 */
+	public static void main( String[] args) throws FileNotFoundException{
+		int port = Integer.getInteger( "minipascal.port", CompileServer.DEFAULT_PORT);
+
+		//only plain compiles are sent to the server.
+		if( args.length == 0 || args[0].startsWith( "--")){
+			CompilerMain.main( args);
+			return;
+		}
+
+		String token;
+		try{
+			token = CompileServer.readToken( port);
+		}catch( IOException ex){
+			//case no server has been started by this user.
+			CompilerMain.main( args);
+			return;
+		}
+		
+		Socket socket = new Socket();
+		try{
+			socket.connect( new InetSocketAddress( InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+		}catch( IOException ex){
+			//case no server is running.
+			CompilerMain.main( args);
+			return;
+		}
+
+		try{
+			//the server does not share this process' working directory, so send an absolute path.
+			File currentDir = new File(System.getProperty("user.dir"));
+			String source = new File( currentDir, args[0]).getAbsolutePath();
+
+			DataOutputStream out = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream()));
+			CompileServer.writeString( out, token);
+			CompileServer.writeString( out, CompileServer.PATH);
+			CompileServer.writeString( out, source);
+			out.flush();
+
+			DataInputStream in = new DataInputStream( new BufferedInputStream( socket.getInputStream()));
+			boolean success = in.readBoolean();
+			String programName = CompileServer.readString( in, Integer.MAX_VALUE);
+			String assembly = CompileServer.readString( in, Integer.MAX_VALUE);
+			System.out.print( CompileServer.readString( in, Integer.MAX_VALUE));
+			socket.close();
+			if(! success){
+				System.exit( 1);
+			}
+			try{
+				CompilerMain.writeOutput( (args.length > 1) ? args[1] : null, programName, assembly);
+			}catch( FileNotFoundException ex){
+				System.out.println( "Could not write output: " + ex.getMessage());
+				System.exit( 1);
+			}
+			System.out.println("Compile Successful!");
+		}catch( IOException ex){
+			System.out.println( "Compile server error: " + ex.getMessage());
+			System.exit( 1);
+		}
+	}
+}
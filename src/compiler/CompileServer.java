@@ -0,0 +1,269 @@
+package compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import scanner.Diagnostic;
+import scanner.IdentifierTable;
+import scanner.SourceReader;
+
+/**
+ * A long-lived compiler that listens on a loopback socket. Keeping the
+ * compiler resident means editor saves and build steps skip the JVM start up
+ * and reuse a scanner and parser that the JIT has already warmed up.
+ *
+ * Java 8 has no Unix-domain sockets, so the server listens on a loopback TCP
+ * port, which any local user can connect to. Each time it starts, the server
+ * writes a new random token to a file only its owner can read, and answers
+ * only requests that carry that token.
+ *
+ * Each request is made of:
+ * the token, the request kind, PATH or SOURCE, and the path of a Mini-Pascal
+ * file or the program text itself.
+ * Each response is made of:
+ * whether the compile succeeded, the name of the program, the generated MIPS
+ * code, and the messages the compiler produced, one per line.
+ * The server writes no files; the client writes the .asm file itself.
+ * Strings are sent as a length followed by UTF-8 bytes.
+ * @author Allen Burgett
+ *
+ */
+public class CompileServer {
+
+	/** Port the server listens on when no port is given. */
+	public static final int DEFAULT_PORT = 7373;
+
+	/** Request kind for compiling a file on disk. */
+	public static final String PATH = "PATH";
+
+	/** Request kind for compiling program text sent with the request. */
+	public static final String SOURCE = "SOURCE";
+
+	/** Longest string, in bytes, a request may hold. */
+	public static final int MAX_STRING = 64 * 1024 * 1024;
+
+	//requests waiting for a worker before new connections are turned away.
+	private static final int QUEUE = 64;
+	//how long a connection may take to send its request.
+	private static final int READ_TIMEOUT = 30000;
+
+	private int port;
+	private ThreadPoolExecutor workers;
+	private MiniPascalCompiler compiler = new MiniPascalCompiler();
+	private byte[] token;
+
+	/**
+	 * Initializes a CompileServer.
+	 * @param port, loopback port to listen on.
+	 */
+	public CompileServer( int port){
+		this.port = port;
+		int threads = Runtime.getRuntime().availableProcessors();
+		this.workers = new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>( QUEUE));
+	}
+
+	/**
+	 * Accepts and answers compile requests until the process is stopped.
+	 * Requests are answered concurrently by a shared {@link MiniPascalCompiler},
+	 * on one worker for each processor.
+	 * @throws IOException if the socket or the token file cannot be opened.
+	 */
+	public void serve() throws IOException{
+		token = writeToken( port).getBytes( StandardCharsets.US_ASCII);
+		ServerSocket serverSocket = new ServerSocket( port, 50, InetAddress.getLoopbackAddress());
+		System.out.println( "Compile server listening on port " + port);
+		try{
+			while( true){
+				final Socket socket = serverSocket.accept();
+				socket.setSoTimeout( READ_TIMEOUT);
+				try{
+					workers.execute( new Runnable(){
+						public void run(){
+							handle( socket);
+						}
+					});
+				}catch( RejectedExecutionException ex){
+					//case every worker is busy and the queue is full.
+					socket.close();
+				}
+			}
+		}finally{
+			serverSocket.close();
+			workers.shutdown();
+		}
+	}
+
+	//reads one request from the socket and writes back the response.
+	private void handle( Socket socket){
+		try{
+			DataInputStream in = new DataInputStream( new BufferedInputStream( socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream()));
+			byte[] given = readString( in, 256).getBytes( StandardCharsets.US_ASCII);
+			ArrayList<String> messages = new ArrayList<String>();
+			String programName = "";
+			String assembly = "";
+			boolean success = false;
+			if( MessageDigest.isEqual( token, given)){
+				String kind = readString( in, MAX_STRING);
+				String input = readString( in, MAX_STRING);
+				try{
+					CompilationResult result = compile( kind.equals( PATH), input, messages);
+					if( result != null && result.isSuccess()){
+						success = true;
+						programName = result.getProgramName();
+						assembly = result.getAssembly();
+					}
+				}catch( RuntimeException ex){
+					messages.add( "Internal compiler error: " + ex);
+				}
+			}else{
+				messages.add( "Compile server rejected the request.");
+			}
+
+			StringBuilder text = new StringBuilder();
+			for( String message : messages){
+				text.append( message).append( '\n');
+			}
+			out.writeBoolean( success);
+			writeString( out, programName);
+			writeString( out, assembly);
+			writeString( out, text.toString());
+			out.flush();
+		}catch( IOException ex){
+			System.out.println( "Compile request failed: " + ex.getMessage());
+		}finally{
+			try{
+				socket.close();
+			}catch( IOException ex){
+				//nothing left to do with a closed connection.
+			}
+			//the names of this request are forgotten, unless another is still compiling.
+			IdentifierTable.reset();
+		}
+	}
+
+	//compiles a file or program text, collecting the messages. Returns null if there is no such file.
+	private CompilationResult compile( boolean isFilename, String input, ArrayList<String> messages) throws IOException{
+		CompilationRequest request;
+		if( isFilename){
+			//the file is read and scanned as a command line compile would.
+			try{
+				request = new CompilationRequest( SourceReader.readBytes( new File( input)));
+			}catch( FileNotFoundException ex){
+				messages.add( "Error No file " + input);
+				return null;
+			}
+		}else{
+			request = new CompilationRequest( input);
+		}
+
+		CompilationResult result = compiler.compile( request);
+		for( Diagnostic diagnostic : result.getDiagnostics()){
+			messages.add( diagnostic.toString());
+		}
+		//case not a valid Mini-Pascal program.
+		if(! result.isSuccess()){
+			messages.add( "Invalid Mini-Pascal Program.");
+		}
+		return result;
+	}
+
+	/**
+	 * The file a server's token is kept in, in the .minipascal directory of
+	 * the user's home.
+	 * @param port, the port of the server.
+	 * @return the token file.
+	 */
+	static File tokenFile( int port){
+		return new File( new File( System.getProperty( "user.home"), ".minipascal"), "server-" + port + ".token");
+	}
+
+	//writes a new random token to the token file, readable and writable by this user only.
+	private static String writeToken( int port) throws IOException{
+		byte[] random = new byte[32];
+		new SecureRandom().nextBytes( random);
+		StringBuilder token = new StringBuilder();
+		for( byte b : random){
+			token.append( Character.forDigit( (b >> 4) & 0xf, 16)).append( Character.forDigit( b & 0xf, 16));
+		}
+
+		File file = tokenFile( port);
+		File dir = file.getParentFile();
+		dir.mkdirs();
+		Path path = file.toPath();
+		Files.deleteIfExists( path);
+		if( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix")){
+			Files.setPosixFilePermissions( dir.toPath(), PosixFilePermissions.fromString( "rwx------"));
+			Files.createFile( path, PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( "rw-------")));
+		}else{
+			Files.createFile( path);
+			file.setReadable( false, false);
+			file.setWritable( false, false);
+			file.setReadable( true, true);
+			file.setWritable( true, true);
+		}
+		Files.write( path, token.toString().getBytes( StandardCharsets.US_ASCII));
+		file.deleteOnExit();
+		return token.toString();
+	}
+
+	/**
+	 * Reads the token of the server on a port.
+	 * @param port, the port of the server.
+	 * @return the token.
+	 * @throws IOException if there is no token file, or it cannot be read.
+	 */
+	static String readToken( int port) throws IOException{
+		return new String( Files.readAllBytes( tokenFile( port).toPath()), StandardCharsets.US_ASCII).trim();
+	}
+
+	/**
+	 * Reads a string sent as a length followed by UTF-8 bytes.
+	 * @param in, stream to read from.
+	 * @param limit, the longest string, in bytes, that will be read.
+	 * @return the string read.
+	 * @throws IOException if the stream ends early, or the length is negative or over the limit.
+	 */
+	static String readString( DataInputStream in, int limit) throws IOException{
+		int length = in.readInt();
+		if( length < 0 || length > limit){
+			throw new IOException( "Bad string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.readFully( bytes);
+		return new String( bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a string as a length followed by UTF-8 bytes.
+	 * @param out, stream to write to.
+	 * @param text, string to write.
+	 * @throws IOException if the stream is closed.
+	 */
+	static void writeString( DataOutputStream out, String text) throws IOException{
+		byte[] bytes = text.getBytes( StandardCharsets.UTF_8);
+		out.writeInt( bytes.length);
+		out.write( bytes);
+	}
+}
@@ -2,12 +2,23 @@ package compiler;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
 
+import codegen.AssemblySink;
+import codegen.ChannelSink;
 import codegen.CodeGenerator;
+import compiler.PhaseTimer.Phase;
 import parser.MyParser;
 import parser.Symbol;
+import scanner.IdentifierTable;
+import scanner.SourceReader;
 
 /**
  * Takes in a file, verifies that it is a properly structured Mini-Pascal
@@ -19,17 +30,189 @@ import parser.Symbol;
  */
 public class CompilerMain {
 	
+	/**
+	 * Version of the compiler, part of every compile cache key. It must change
+	 * whenever the MIPS code generated for some program changes, or caches
+	 * filled by an older compiler keep serving the old code.
+	 */
+	public static final String VERSION = "1.3";
+	
 	/**
 	 * Takes in one argument, the path of the Mini-Pascal code.
+	 * Passing --batch as the first argument compiles many files or directories
+	 * in a single run, see {@link BatchCompiler}. Passing --watch recompiles files
+	 * as they are saved, see {@link WatchCompiler}. Passing --server [port] keeps
+	 * the compiler resident, see {@link CompileServer}. Passing --cache [directory]
+	 * and optionally --cache-size [megabytes] before the file path reuses the output
+	 * of unchanged sources, see {@link CompileCache}. Passing --time-report prints
+	 * the time spent in each phase of the compile, see {@link PhaseTimer}. Passing
+	 * --scanner direct scans with the hand written DirectScanner instead of the
+	 * JFlex table scanner. Either way the source is read whole in to memory
+	 * before it is scanned, see {@link SourceReader}.
 	 * @param args, file path from the command line point.
 	 * @throws FileNotFoundException description
 	 */
 	public static void main(String[] args) throws FileNotFoundException{
+		//case batch mode, the remaining arguments are handled by the batch compiler.
+		if( args.length > 0 && args[0].equals( "--batch")){
+			BatchCompiler.main( Arrays.copyOfRange( args, 1, args.length));
+			return;
+		}
+		//case watch mode, the remaining arguments are handled by the watch compiler.
+		if( args.length > 0 && args[0].equals( "--watch")){
+			WatchCompiler.main( Arrays.copyOfRange( args, 1, args.length));
+			return;
+		}
+		//case server mode, the compiler stays resident and takes requests from CompileClient.
+		if( args.length > 0 && args[0].equals( "--server")){
+			int port = (args.length > 1) ? Integer.parseInt( args[1]) : CompileServer.DEFAULT_PORT;
+			try{
+				new CompileServer( port).serve();
+			}catch( IOException ex){
+				System.out.println( "Could not start the compile server: " + ex.getMessage());
+			}
+			return;
+		}
 		long startTime = System.currentTimeMillis();
+		//separates the cache, timing and scanner options from the file path and output location.
+		String cacheDir = null;
+		long cacheSize = CompileCache.DEFAULT_MAX_BYTES;
+		PhaseTimer timer = null;
+		ArrayList<String> paths = new ArrayList<String>();
+		for( int i = 0; i < args.length; i++){
+			if( args[i].equals( "--time-report")){
+				timer = new PhaseTimer();
+			}else if( args[i].equals( "--cache") && i + 1 < args.length){
+				cacheDir = args[++i];
+			}else if( args[i].equals( "--cache-size") && i + 1 < args.length){
+				cacheSize = Long.parseLong( args[++i]) * 1024 * 1024;
+			}else if( args[i].equals( "--scanner") && i + 1 < args.length){
+				System.setProperty( SourceReader.SCANNER_PROPERTY, args[++i]);
+			}else{
+				paths.add( args[i]);
+			}
+		}
+		CompileCache cache = (cacheDir != null) ? new CompileCache( new File( cacheDir), cacheSize) : null;
+		
 		File currentDir = new File(System.getProperty("user.dir"));
-	    File newFile = new File(currentDir,args[0]);
-	    MyParser parser = new MyParser(newFile.toString(), true);
+	    File newFile = new File(currentDir,paths.get(0));
+	    
+	    if( compile( newFile, (paths.size() > 1) ? paths.get(1) : null, cache, timer)){
+			long endTime = System.currentTimeMillis();
+			System.out.println("Complie took " + (endTime - startTime) + "ms to complete.");
+	    }
+	    if( timer != null){
+	    	System.out.print( timer.report());
+	    }
+	}
+	
+	/**
+	 * Compiles a single Mini-Pascal file and writes the MIPS code to
+	 * [Program Name].asm. Each call builds its own parser, symbol table and
+	 * code generator, so separate files can be compiled on separate threads.
+	 * @param source, the Mini-Pascal file to compile.
+	 * @param outputLocation, prefix of the output file, or null for the working directory.
+	 * @return true if the program compiled and the output file was written.
+	 * @throws FileNotFoundException if the output file cannot be created.
+	 */
+	public static boolean compile( File source, String outputLocation) throws FileNotFoundException{
+		return compile( source, outputLocation, null, null);
+	}
+	
+	/**
+	 * Compiles a single Mini-Pascal file, reusing the output of an earlier compile
+	 * if the cache holds one for the same source bytes.
+	 * @param source, the Mini-Pascal file to compile.
+	 * @param outputLocation, prefix of the output file, or null for the working directory.
+	 * @param cache, cache of earlier compiles, or null to always compile.
+	 * @param timer, timer to record the time of each phase in, or null for no timing.
+	 * @return true if the program compiled and the output file was written.
+	 * @throws FileNotFoundException if the output file cannot be created.
+	 */
+	public static boolean compile( File source, String outputLocation, CompileCache cache,
+			PhaseTimer timer) throws FileNotFoundException{
+		return compile( source, outputLocation, cache, timer, null);
+	}
+
+	/**
+	 * Compiles a single Mini-Pascal file as one of many compiled together, whose
+	 * output files are all named after their programs. Before its output is
+	 * written, the file claims its program name, and if another file has
+	 * already claimed it, the file fails rather than writing over that output.
+	 * @param source, the Mini-Pascal file to compile.
+	 * @param outputLocation, prefix of the output file, or null for the working directory.
+	 * @param cache, cache of earlier compiles, or null to always compile.
+	 * @param timer, timer to record the time of each phase in, or null for no timing.
+	 * @param programs, the file that claimed each program name, shared by the files compiled together, or null.
+	 * @return true if the program compiled and the output file was written.
+	 * @throws FileNotFoundException if the output file cannot be created.
+	 */
+	public static boolean compile( File source, String outputLocation, CompileCache cache,
+			PhaseTimer timer, ConcurrentMap<String, File> programs) throws FileNotFoundException{
+		IdentifierTable.open();
+		try{
+			return compileFile( source, outputLocation, cache, timer, programs);
+		}finally{
+			IdentifierTable.close();
+		}
+	}
+
+	//compiles a file, with a session open on the IdentifierTable.
+	private static boolean compileFile( File source, String outputLocation, CompileCache cache,
+			PhaseTimer timer, ConcurrentMap<String, File> programs) throws FileNotFoundException{
+		String key = null;
+		byte[] bytes = null;
+		//the source is read up front when its bytes are needed for the cache key.
+		if( cache != null){
+			try{
+				if( timer != null){
+					timer.start( Phase.READ);
+				}
+				bytes = SourceReader.readBytes( source);
+				key = cache.key( bytes, "");
+				String[] entry = cache.get( key);
+				//case the source has been compiled before, its output is copied from the cache.
+				if( entry != null){
+					if(! claim( programs, entry[0], source)){
+						if( timer != null){
+							timer.stop();
+						}
+						return false;
+					}
+					if( timer != null){
+						timer.start( Phase.WRITE);
+					}
+					writeOutput( outputLocation, entry[0], entry[1]);
+					if( timer != null){
+						timer.stop();
+					}
+					System.out.println("Compile Successful!");
+					return true;
+				}
+			}catch( IOException ex){
+				//the parser reports the unreadable file.
+				bytes = null;
+			}
+		}
+		
+		//opening the source file reads it whole, so the opening is timed as reading.
+		if( timer != null && bytes == null){
+			timer.start( Phase.READ);
+		}
+	    //the bytes already read are scanned by the same scanner a plain compile would open.
+	    MyParser parser = (bytes != null) ? new MyParser( bytes) : new MyParser(source.toString(), true);
+		if( timer != null){
+			timer.start( Phase.PARSE);
+		}
+	    parser.setTiming( timer != null);
 		boolean isProgram = parser.program();
+		if( timer != null){
+			//scanning and folding happen during the parse, so their time is moved out of it.
+			timer.stop();
+			timer.add( Phase.PARSE, -(parser.getScanNanos() + parser.getFoldNanos()));
+			timer.add( Phase.SCAN, parser.getScanNanos());
+			timer.add( Phase.FOLD, parser.getFoldNanos());
+		}
 
 //		//prints the contents of the global symbol table.
 //		for(Symbol symbol : parser.symbolTable.getSymbols()){
@@ -41,57 +224,116 @@ public class CompilerMain {
 		
 		//case is a properly structured Mini_Pascal program.
 		if( isProgram){
+			if(! claim( programs, parser.prog.getName(), source)){
+				return false;
+			}
+			//the code is streamed straight to the output file.
+			File outputFile = outputFile( outputLocation, parser.prog.getName());
+			AssemblySink sink = new ChannelSink( new FileOutputStream( outputFile).getChannel());
+			if( timer != null){
+				timer.start( Phase.CODEGEN);
+			}
 			//pass the Program Tree and Symbol Table for code generation
-			CodeGenerator codeGen = new CodeGenerator( parser.prog, parser.symbolTable);
-			//build an output string of MIPS code
+			CodeGenerator codeGen = new CodeGenerator( parser.prog, parser.symbolTable, sink);
+			//build the MIPS code in to the sink
 			boolean successfulCompile = codeGen.compile();
+			//the code left in the sink's buffer is written out as it is closed.
+			if( timer != null){
+				timer.start( Phase.WRITE);
+			}
+			sink.close();
+			if( timer != null){
+				timer.stop();
+			}
+			//case the output file could not be written.
+			if( sink.checkError()){
+				outputFile.delete();
+				System.out.println("Could not write " + outputFile + ".");
+				return false;
+			}
 			//case there were no problems with the code compilation.
 			if( successfulCompile){
-				//create buffer to write the MIPS code to
-				PrintWriter writer = null;
-				if( args.length > 1){
-					File outDir = new File( args[1]);
-
-					// if the directory does not exist, create it
-					if (!outDir.exists()) {
-					    System.out.println("Creating directory: " + outDir.getName());
-					    boolean result = false;
-
-					    try{
-					        outDir.mkdir();
-					        result = true;
-					    } 
-					    catch(SecurityException se){
-					    	System.out.println("You do not have permission to create this directory.");
-					    }        
-					    if(result) {    
-					        System.out.println("Directory created");  
-					    }
+				//the finished file is copied in to the cache.
+				if( key != null){
+					try{
+						cache.put( key, parser.prog.getName(),
+								new String( Files.readAllBytes( outputFile.toPath()), StandardCharsets.UTF_8));
+					}catch( IOException ex){
+						//the cache is only an optimization, the program is still compiled.
 					}
-					
-					writer = new PrintWriter( args[1] + parser.prog.getName() + ".asm");
-				}else{
-					writer = new PrintWriter( parser.prog.getName() + ".asm");
-				}
-				
-				ArrayList<String> output = codeGen.getOutput();
-				
-				//write the output to the buffer.
-				for(int i = 0; i < output.size(); i++){
-					writer.print(output.get(i));
 				}
-				//close the buffer and save the output to the output file.
-				writer.close();
 				System.out.println("Compile Successful!");
-				long endTime = System.currentTimeMillis();
-				System.out.println("Complie took " + (endTime - startTime) + "ms to complete.");
+				return true;
 			//case there was a problem on compile.
 			}else{
+				outputFile.delete();
 				System.out.println("Compile time error.");
 			}
 		//case not a valid Mini-Pascal program.
 		}else{
 			System.out.println("Invalid Mini-Pascal Program.");
 		}
+		return false;
+	}
+	
+	//claims a program name for a source, or reports the source that already has it.
+	private static boolean claim( ConcurrentMap<String, File> programs, String programName, File source){
+		if( programs == null){
+			return true;
+		}
+		File first = programs.putIfAbsent( programName, source);
+		if( first != null && !first.equals( source)){
+			System.out.println( "Error program " + programName + " in " + source + " is also in " + first);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the file the MIPS code of a program is written to, [Program Name].asm.
+	 * @param outputLocation, prefix of the output file, or null for the working directory.
+	 * The directory is created if it does not exist.
+	 * @param programName, name of the compiled program.
+	 * @return the output file.
+	 */
+	public static File outputFile( String outputLocation, String programName){
+		if( outputLocation != null){
+			File outDir = new File( outputLocation);
+
+			// if the directory does not exist, create it
+			if (!outDir.exists()) {
+			    System.out.println("Creating directory: " + outDir.getName());
+			    boolean result = false;
+
+			    try{
+			        outDir.mkdir();
+			        result = true;
+			    } 
+			    catch(SecurityException se){
+			    	System.out.println("You do not have permission to create this directory.");
+			    }        
+			    if(result) {    
+			        System.out.println("Directory created");  
+			    }
+			}
+			
+			return new File( outputLocation + programName + ".asm");
+		}
+		return new File( programName + ".asm");
+	}
+	
+	/**
+	 * Writes already generated MIPS code to [Program Name].asm.
+	 * @param outputLocation, prefix of the output file, or null for the working directory.
+	 * @param programName, name of the compiled program.
+	 * @param assembly, the MIPS code of the program.
+	 * @throws FileNotFoundException if the output file cannot be created.
+	 */
+	public static void writeOutput( String outputLocation, String programName, String assembly) throws FileNotFoundException{
+		//create buffer to write the MIPS code to
+		PrintWriter writer = new PrintWriter( outputFile( outputLocation, programName));
+		writer.print( assembly);
+		//close the buffer and save the output to the output file.
+		writer.close();
 	}
 }
@@ -0,0 +1,73 @@
+package compiler;
+
+import java.util.ArrayList;
+
+import codegen.CodeGenerator;
+import codegen.StringSink;
+import compiler.PhaseTimer.Phase;
+import parser.MyParser;
+import scanner.Diagnostic;
+import scanner.IdentifierTable;
+
+/**
+ * Compiles Mini-Pascal programs in memory, for tools that embed the compiler
+ * rather than running it from the command line. Nothing is read from or
+ * written to disk and nothing is printed; the MIPS code and all diagnostics
+ * are returned in a {@link CompilationResult}. A MiniPascalCompiler holds no
+ * state between compiles, so one instance can be shared by many threads.
+ * @author Allen Burgett
+ *
+ */
+public class MiniPascalCompiler {
+
+	/**
+	 * Compiles a program.
+	 * @param request, the program to compile.
+	 * @return the MIPS code, diagnostics and phase times of the compile.
+	 */
+	public CompilationResult compile( CompilationRequest request){
+		IdentifierTable.open();
+		try{
+			return compileProgram( request);
+		}finally{
+			IdentifierTable.close();
+		}
+	}
+
+	//compiles a program, with a session open on the IdentifierTable.
+	private CompilationResult compileProgram( CompilationRequest request){
+		PhaseTimer timer = new PhaseTimer();
+		timer.start( Phase.PARSE);
+		MyParser parser = (request.getSource() != null) ? new MyParser( request.getSource()) : new MyParser( request.getReader());
+		parser.setQuiet( true);
+		parser.setBuffered( true);
+		parser.setTiming( request.isTiming());
+		ArrayList<Diagnostic> diagnostics = parser.getDiagnostics();
+
+		boolean isProgram = false;
+		try{
+			isProgram = parser.program();
+		}catch( RuntimeException ex){
+			//the parser can fail on some malformed programs after reporting the error.
+			diagnostics.add( new Diagnostic( "Internal compiler error: " + ex, -1, -1, true));
+		}
+		timer.stop();
+		timer.add( Phase.PARSE, -(parser.getScanNanos() + parser.getFoldNanos()));
+		timer.add( Phase.SCAN, parser.getScanNanos());
+		timer.add( Phase.FOLD, parser.getFoldNanos());
+
+		String programName = (parser.prog != null) ? parser.prog.getName() : null;
+		//case not a valid Mini-Pascal program.
+		if(! isProgram){
+			return new CompilationResult( false, programName, null, diagnostics, timer);
+		}
+
+		timer.start( Phase.CODEGEN);
+		StringSink sink = new StringSink();
+		CodeGenerator codeGen = new CodeGenerator( parser.prog, parser.symbolTable, sink);
+		boolean successfulCompile = codeGen.compile();
+		timer.stop();
+		String assembly = successfulCompile ? sink.toString() : null;
+		return new CompilationResult( successfulCompile, programName, assembly, diagnostics, timer);
+	}
+}
@@ -0,0 +1,115 @@
+package compiler;
+
+/**
+ * Records the time spent in each phase of a compile, with nanosecond
+ * resolution. Time can be added to a phase several times, and the timers of
+ * several compiles can be merged into one for a batch report.
+ * @author Allen Burgett
+ *
+ */
+public class PhaseTimer {
+
+	/**
+	 * The phases of a compile, in the order they run.
+	 */
+	public enum Phase {
+		READ( "Reading input"), SCAN( "Scanning"), PARSE( "Parsing"), FOLD( "Folding"),
+		CODEGEN( "Code generation"), WRITE( "Writing output");
+
+		private String description;
+
+		Phase( String description){
+			this.description = description;
+		}
+
+		/**
+		 *
+		 * @return the name of the phase as printed in the report.
+		 */
+		public String getDescription(){
+			return description;
+		}
+	}
+
+	private long[] nanos = new long[Phase.values().length];
+	private Phase current = null;
+	private long startTime = 0;
+
+	/**
+	 * Starts timing a phase. Any phase already being timed is stopped first.
+	 * @param phase, the phase that is starting.
+	 */
+	public void start( Phase phase){
+		stop();
+		current = phase;
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Stops timing the current phase and adds the elapsed time to it.
+	 */
+	public void stop(){
+		if( current != null){
+			nanos[current.ordinal()] += System.nanoTime() - startTime;
+			current = null;
+		}
+	}
+
+	/**
+	 * Adds time that was measured elsewhere to a phase.
+	 * @param phase, the phase the time was spent in.
+	 * @param time, the time in nanoseconds.
+	 */
+	public void add( Phase phase, long time){
+		nanos[phase.ordinal()] += time;
+	}
+
+	/**
+	 *
+	 * @param phase, a phase of the compile.
+	 * @return the time spent in the phase in nanoseconds.
+	 */
+	public long getNanos( Phase phase){
+		return nanos[phase.ordinal()];
+	}
+
+	/**
+	 *
+	 * @return the time spent in all phases in nanoseconds.
+	 */
+	public long getTotalNanos(){
+		long total = 0;
+		for( long time : nanos){
+			total += time;
+		}
+		return total;
+	}
+
+	/**
+	 * Adds the times of another timer to this one. Safe to call from several
+	 * threads at once.
+	 * @param other, the timer to add.
+	 */
+	public synchronized void merge( PhaseTimer other){
+		for( int i = 0; i < nanos.length; i++){
+			nanos[i] += other.nanos[i];
+		}
+	}
+
+	/**
+	 * Builds a table of the time spent in each phase and its share of the total.
+	 * @return the report, one line per phase.
+	 */
+	public String report(){
+		long total = getTotalNanos();
+		StringBuilder answer = new StringBuilder();
+		answer.append( String.format( "%-18s %12s %7s%n", "Phase", "Time (ms)", "Share"));
+		for( Phase phase : Phase.values()){
+			long time = nanos[phase.ordinal()];
+			double share = (total == 0) ? 0 : (100.0 * time) / total;
+			answer.append( String.format( "%-18s %12.3f %6.1f%%%n", phase.getDescription(), time / 1e6, share));
+		}
+		answer.append( String.format( "%-18s %12.3f %6.1f%%%n", "Total", total / 1e6, 100.0));
+		return answer.toString();
+	}
+}
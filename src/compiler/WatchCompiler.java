@@ -0,0 +1,268 @@
+package compiler;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+import scanner.IdentifierTable;
+
+/**
+ * Watches Mini-Pascal files and directories and recompiles each .pas file
+ * as soon as it is saved. Every file is compiled once at start up, after
+ * which only the files that changed are compiled again. Editors often write
+ * a file several times for one save, so changes are collected until the
+ * tree has been quiet for a moment before anything is compiled. The JVM,
+ * the JIT and any compile cache stay warm for as long as the watch runs.
+ * @author Allen Burgett
+ *
+ */
+public class WatchCompiler {
+
+	//how long the tree must be quiet before the changed files are compiled.
+	private static final long DEBOUNCE_MILLIS = 200;
+
+	private String outputLocation;
+	private CompileCache cache = null;
+	private boolean timeReport = false;
+
+	private WatchService watcher = null;
+	private HashMap<WatchKey, Path> directories = new HashMap<WatchKey, Path>();
+	//directories whose .pas files are all compiled, and single files named on the command line.
+	private HashSet<Path> trees = new HashSet<Path>();
+	private HashSet<Path> files = new HashSet<Path>();
+
+	/**
+	 * Initializes a WatchCompiler.
+	 * @param outputLocation, directory the .asm files are written to, or null for the working directory.
+	 */
+	public WatchCompiler( String outputLocation){
+		//the output location is used as a prefix, so it must end with a separator.
+		if( outputLocation != null && !outputLocation.endsWith( File.separator)){
+			outputLocation += File.separator;
+		}
+		this.outputLocation = outputLocation;
+	}
+
+	/**
+	 * Sets a cache of earlier compiles, so saving a file without changing it
+	 * does not compile it again.
+	 * @param cache, cache to reuse output from, or null to always compile.
+	 */
+	public void setCache( CompileCache cache){
+		this.cache = cache;
+	}
+
+	/**
+	 * Sets whether the time spent in each phase is printed after every round of compiles.
+	 * @param timeReport, true to print a report.
+	 */
+	public void setTimeReport( boolean timeReport){
+		this.timeReport = timeReport;
+	}
+
+	/**
+	 * Adds a file or directory to watch. Directories are watched along with
+	 * every directory under them, including ones created later.
+	 * @param path, a Mini-Pascal file or a directory of them.
+	 * @throws IOException if the path cannot be watched.
+	 */
+	public void addSource( File path) throws IOException{
+		if( watcher == null){
+			watcher = FileSystems.getDefault().newWatchService();
+		}
+		Path source = path.toPath().toAbsolutePath().normalize();
+		if( Files.isDirectory( source)){
+			register( source);
+		}else{
+			files.add( source);
+			watch( source.getParent());
+		}
+	}
+
+	/**
+	 * Compiles every watched file, then compiles files again as they change.
+	 * Only returns if the watch is interrupted.
+	 * @throws IOException if a new directory cannot be watched.
+	 */
+	public void watch() throws IOException{
+		LinkedHashSet<Path> changed = new LinkedHashSet<Path>();
+		for( Path file : files){
+			changed.add( file);
+		}
+		for( Path tree : trees){
+			addSources( tree, changed);
+		}
+		compile( changed);
+
+		try{
+			while( true){
+				System.out.println( "Watching for changes...");
+				WatchKey key = watcher.take();
+				//collects changes until no more arrive for the debounce time.
+				while( key != null){
+					collect( key, changed);
+					key = watcher.poll( DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				compile( changed);
+			}
+		}catch( InterruptedException ex){
+			Thread.currentThread().interrupt();
+		}finally{
+			watcher.close();
+		}
+	}
+
+	//adds the .pas files changed by the events of a key.
+	private void collect( WatchKey key, LinkedHashSet<Path> changed) throws IOException{
+		Path directory = directories.get( key);
+		for( WatchEvent<?> event : key.pollEvents()){
+			//case events were lost, so anything may have changed.
+			if( event.kind() == StandardWatchEventKinds.OVERFLOW){
+				changed.addAll( files);
+				for( Path tree : trees){
+					addSources( tree, changed);
+				}
+				continue;
+			}
+			Path path = directory.resolve( (Path) event.context());
+			boolean inTree = trees.contains( directory);
+			if( inTree && event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory( path)){
+				//files may be saved in to a new directory before it is watched.
+				register( path);
+				addSources( path, changed);
+			}else if( isSource( path) && (inTree || files.contains( path))){
+				changed.add( path);
+			}
+		}
+		//case the directory is gone.
+		if(! key.reset()){
+			directories.remove( key);
+			trees.remove( directory);
+		}
+	}
+
+	//compiles the changed files that still exist and empties the set.
+	private void compile( LinkedHashSet<Path> changed){
+		PhaseTimer timer = timeReport ? new PhaseTimer() : null;
+		for( Path path : changed){
+			if(! Files.isRegularFile( path)){
+				continue;
+			}
+			System.out.println( "Compiling " + path);
+			try{
+				CompilerMain.compile( path.toFile(), outputLocation, cache, timer);
+			}catch( FileNotFoundException ex){
+				System.out.println( "Could not write output: " + ex.getMessage());
+			}catch( RuntimeException ex){
+				//one bad file must not stop the watch.
+				System.out.println( "Error compiling " + path + ": " + ex);
+			}
+		}
+		changed.clear();
+		//the names of this round are forgotten, so a long watch does not keep them all.
+		IdentifierTable.reset();
+		if( timer != null){
+			System.out.print( timer.report());
+		}
+	}
+
+	//watches a directory and every directory under it.
+	private void register( Path directory) throws IOException{
+		watch( directory);
+		trees.add( directory);
+		DirectoryStream<Path> children = Files.newDirectoryStream( directory);
+		try{
+			for( Path child : children){
+				if( Files.isDirectory( child)){
+					register( child);
+				}
+			}
+		}finally{
+			children.close();
+		}
+	}
+
+	//watches a single directory, without the directories under it.
+	private void watch( Path directory) throws IOException{
+		if(! directories.containsValue( directory)){
+			WatchKey key = directory.register( watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+			directories.put( key, directory);
+		}
+	}
+
+	//adds every .pas file under a directory.
+	private void addSources( Path directory, LinkedHashSet<Path> changed) throws IOException{
+		DirectoryStream<Path> children = Files.newDirectoryStream( directory);
+		try{
+			for( Path child : children){
+				if( Files.isDirectory( child)){
+					addSources( child, changed);
+				}else if( isSource( child)){
+					changed.add( child);
+				}
+			}
+		}finally{
+			children.close();
+		}
+	}
+
+	private static boolean isSource( Path path){
+		return path.getFileName().toString().endsWith( ".pas");
+	}
+
+	/**
+	 * Usage: --watch [-o output location] [--time-report] [--cache directory [--cache-size megabytes]]
+	 * files or directories...
+	 * @param args, options followed by the files and directories to watch.
+	 */
+	public static void main( String[] args){
+		String outputLocation = null;
+		ArrayList<File> paths = new ArrayList<File>();
+		String cacheDir = null;
+		long cacheSize = CompileCache.DEFAULT_MAX_BYTES;
+		boolean timeReport = false;
+
+		for( int i = 0; i < args.length; i++){
+			if( args[i].equals( "--time-report")){
+				timeReport = true;
+			}else if( args[i].equals( "-o") && i + 1 < args.length){
+				outputLocation = args[++i];
+			}else if( args[i].equals( "--cache") && i + 1 < args.length){
+				cacheDir = args[++i];
+			}else if( args[i].equals( "--cache-size") && i + 1 < args.length){
+				cacheSize = Long.parseLong( args[++i]) * 1024 * 1024;
+			}else{
+				paths.add( new File( args[i]));
+			}
+		}
+
+		WatchCompiler watch = new WatchCompiler( outputLocation);
+		watch.setTimeReport( timeReport);
+		if( cacheDir != null){
+			watch.setCache( new CompileCache( new File( cacheDir), cacheSize));
+		}
+		try{
+			for( File path : paths){
+				watch.addSource( path);
+			}
+			watch.watch();
+		}catch( IOException ex){
+			System.out.println( "Could not watch sources: " + ex.getMessage());
+			System.exit( 1);
+		}
+	}
+}
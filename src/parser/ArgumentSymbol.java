@@ -15,14 +15,14 @@ public class ArgumentSymbol extends VariableSymbol {
 	
 	/**
 	 * Initializes an ArgumentSymbol. This invokes the VariableSymbol Constructor to set the 
-	 * identifier, dataIdentifier, and type.
+	 * identifier, type, and place in the stack frame.
 	 * @param identifier, name as written in the source
-	 * @param dataIdentifier, name to be written during code generation (stack location or data location)
 	 * @param type, Integer or Real
 	 * @param argNum, the position this argument sits in the procedure declaration 
+	 * @param offset, bytes from the frame pointer to where the argument is stored
 	 */
-	public ArgumentSymbol(String identifier, String dataIdentifier, Keywords type, int argNum){
-		super(identifier, dataIdentifier, type);
+	public ArgumentSymbol(String identifier, Keywords type, int argNum, int offset){
+		super(identifier, type, offset);
 		this.argNum = argNum;
 	}
 	
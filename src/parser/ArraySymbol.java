@@ -13,16 +13,15 @@ public class ArraySymbol extends VariableSymbol {
 	private Integer arrayEnd;
 	
 	/**
-	 * Initializes an ArraySymbol. Invokes VariableSymbol's constructor to set
-	 * identifier, dataIdentifier, and type.
+	 * Initializes a global ArraySymbol. Invokes VariableSymbol's constructor to set
+	 * identifier and type.
 	 * @param identifier, name of the array as written in the source code.
-	 * @param dataIdentifier, name of the array as used by the code generatior
 	 * @param type, Integer or Real
 	 * @param start, start index of the array.
 	 * @param end, end index of the array.
 	 */
-	public ArraySymbol( String identifier, String dataIdentifier, Keywords type, Integer start, Integer end){
-		super( identifier, dataIdentifier, type);
+	public ArraySymbol( String identifier, Keywords type, Integer start, Integer end){
+		super( identifier, type);
 		this.arrayStart = start;
 		this.arrayEnd = end;
 	}
@@ -1,16 +1,21 @@
 package parser;
 
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.StringReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 
 import analysis.SemanticAnalyzer;
+import scanner.Diagnostic;
+import scanner.Lexer;
 import scanner.MyScanner;
+import scanner.NumberLiteral;
+import scanner.SourceReader;
 import scanner.Token;
+import scanner.TokenBuffer;
 import syntaxtree.ArrayNode;
 import syntaxtree.AssignmentStatementNode;
 import syntaxtree.CompoundStatementNode;
@@ -48,16 +53,30 @@ public class MyParser {
     ///////////////////////////////
     
     private Token lookahead; 		//used to view the next token, without consuming it.
+    private TokenBuffer tokens = null;	//all tokens of the program, when scanned up front.
+    private int cursor = 0;			//number of the lookahead token in tokens.
+    private boolean buffered = false;	//used to scan the whole program before parsing.
     
-    private MyScanner scanner; 		//used to scan for tokens in the given string.
+    private Lexer scanner; 			//used to scan for tokens in the given string.
     
     public SymbolTable symbolTable; //used to hold symbols found while building the syntax tree.
     
     public ProgramNode prog;
     
     private boolean noError = true; //used to indicate a successful parsing.
+    private ArrayList<Diagnostic> diagnostics = new ArrayList<Diagnostic>(); //all errors and warnings found while parsing.
+    private boolean quiet = false;  //used to stop errors from being printed.
+    
+    private boolean timing = false; //used to turn on the scanning and folding timers.
+    private long scanNanos = 0;     //time spent in the scanner.
+    private long foldNanos = 0;     //time spent folding expressions.
     private int elseCount = 0;		//used to track else statements for code generation.
     
+    //precedences of the binary operators, loosest first.
+    private static final int RELATIONAL = 1;
+    private static final int ADDING = 2;
+    private static final int MULTIPLYING = 3;
+    
     ///////////////////////////////
     //       Constructors
     ///////////////////////////////
@@ -70,30 +89,49 @@ public class MyParser {
      * true.
      */
     public MyParser( String text, boolean isFilename) {
-    	//if a file is given, the file is broken down into a
-    	//file input stream, then passed to the scanner.
+    	this( openSource( text, isFilename));
+    }
+    
+    /**
+     * Initializes a Parser over the bytes of a source file that has
+     * already been read, scanned as they would be if the parser had
+     * read the file itself.
+     * @param source, every byte of the source file.
+     */
+    public MyParser( byte[] source) {
+    	this( SourceReader.open( source));
+    }
+    
+    /**
+     * Initializes a Parser that reads the program from the given
+     * stream of text.
+     * @param reader, the text to be parsed.
+     */
+    public MyParser( Reader reader) {
+    	this( new MyScanner( reader));
+    }
+    
+    private MyParser( Lexer scanner) {
+    	this.scanner = scanner;
+        symbolTable = new SymbolTable();
+    }
+    
+    //opens the text to be parsed. If a file is given, the file is read whole
+    //and scanned from a single buffer, as bytes if it is ASCII, otherwise the
+    //string is scanned in place.
+    private static Lexer openSource( String text, boolean isFilename) {
         if( isFilename) {
-	        FileInputStream fis = null;
 	        try {
-	            fis = new FileInputStream(text);
+	            return SourceReader.open( new File( text));
 	        } catch (FileNotFoundException ex) {
-	            error( "No file");
+	            //an empty program, so the parse fails at the first token.
+	            System.out.println( "Error No file " + text);
+	        } catch (IOException ex) {
+	            System.out.println( "Error reading " + text + ": " + ex.getMessage());
 	        }
-	        InputStreamReader isr = new InputStreamReader( fis);
-	        scanner = new MyScanner( isr);
-	                 
+	        return SourceReader.open( CharBuffer.allocate( 0));
         }
-        else {//otherwise, the string is parsed as is.
-            scanner = new MyScanner( new StringReader( text));
-	        }
-        try {
-            lookahead = scanner.nextToken();
-        } catch (IOException ex) {
-            error( "Scan error");
-        }
-        
-        symbolTable = new SymbolTable();
-    
+        return SourceReader.open( CharBuffer.wrap( text.toCharArray()));
     }
     
     ///////////////////////////////
@@ -107,14 +145,30 @@ public class MyParser {
      * @return true if the given text is valid Mini_Pascal code.
      */
     public boolean program(){
-    	if( lookahead.getType() == Keywords.PROGRAM){
+    	//reads the first token. This is left until now so that the parser can be
+    	//made quiet or timed before anything is scanned.
+        try {
+            if( buffered) {
+                fillTokens();
+            }else {
+                lookahead = nextToken();
+                if( lookahead == null) {
+                    lookahead = new Token( "End of File", null);
+                }
+            }
+        } catch (IOException ex) {
+            error( "Scan error");
+            return noError;
+        }
+        
+    	if( lookaheadType() == Keywords.PROGRAM){
     		match( Keywords.PROGRAM);
     		
-    		if( lookahead.getType() == Keywords.ID){
+    		if( lookaheadType() == Keywords.ID){
     			//adds the program name to the symbol table.
-    			symbolTable.add(lookahead.getLexeme(), Kinds.PROGRAM, null, null, null);
+    			symbolTable.add(lookaheadLexeme(), Kinds.PROGRAM, null, null, null);
     			//starts the program syntax tree.
-    			prog = new ProgramNode(lookahead.getLexeme());
+    			prog = new ProgramNode(lookaheadLexeme());
     			match( Keywords.ID);
     		}
     		else{
@@ -138,16 +192,17 @@ public class MyParser {
     }
     
     //returns a list of identifier strings (ie. variable and array names).
-    //used to bulk declare VariableNodes in declaration sections. Calls
-    //itself recursively until all IDs are matched.
+    //used to bulk declare VariableNodes in declaration sections. Loops
+    //until all IDs are matched.
     private ArrayList<String> identifier_list() {
     	ArrayList<String> identifierList = new ArrayList<String>();
-    	identifierList.add( lookahead.getLexeme());
+    	identifierList.add( lookaheadLexeme());
 		match( Keywords.ID);
 		
-		if( lookahead.getType() == Keywords.COMMA){
+		while( lookaheadType() == Keywords.COMMA){
 			match( Keywords.COMMA);
-			identifierList.addAll( identifier_list());
+			identifierList.add( lookaheadLexeme());
+			match( Keywords.ID);
 		}
 		
 		return identifierList;
@@ -156,7 +211,8 @@ public class MyParser {
     //builds a list of identifiers and gives them at type, Integer or Real.
 	private DeclarationsNode declarations() {
 		DeclarationsNode decs = new DeclarationsNode();
-    	if( lookahead.getType() == Keywords.VAR){
+		//loops until there are no more variables to be declared, the lambda case ends it.
+    	while( lookaheadType() == Keywords.VAR){
 	    	match( Keywords.VAR);
 	    	//builds a list of strings of declared variable IDs.
 	    	ArrayList<String> identifierList = identifier_list();
@@ -166,13 +222,7 @@ public class MyParser {
 	    	//passes false because these are not arguments.
 	    	decs.addAllVariables( type(identifierList, false));
 	    	
-	    	
 	    	match( Keywords.SEMI_COLON);
-	    	//calls itself until there are no more variables to be declared.
-	    	decs.addAllVariables( declarations().getVars());
-    	}
-    	else{
-    		//lambda case
     	}
     	
     	return decs;
@@ -188,13 +238,13 @@ public class MyParser {
 		Keywords varType = null; 		
 		
 		//array case. Handles declaration grammar for an array.
-		if( lookahead.getType() == Keywords.ARRAY){
+		if( lookaheadType() == Keywords.ARRAY){
 			
 			match( Keywords.ARRAY);
 			match( Keywords.LEFT_SQUARE_BRACKET);
 			//start index
-			if( lookahead.getType() == Keywords.NUMBER){
-				arrayStart = Integer.parseInt( lookahead.getLexeme());
+			if( lookaheadType() == Keywords.NUMBER && !lookaheadIsReal()){
+				arrayStart = (int) integerValue();
 				match( Keywords.NUMBER);
 			}
 			else{
@@ -204,8 +254,8 @@ public class MyParser {
 			match( Keywords.COLON);
 			
 			//end index
-			if( lookahead.getType() == Keywords.NUMBER){
-				arrayEnd = Integer.parseInt( lookahead.getLexeme());
+			if( lookaheadType() == Keywords.NUMBER && !lookaheadIsReal()){
+				arrayEnd = (int) integerValue();
 				match( Keywords.NUMBER);
 			}
 			else{
@@ -219,7 +269,7 @@ public class MyParser {
 			varType = standard_type();
 		}
 		//variable case
-		else if( lookahead.getType() == Keywords.INTEGER || lookahead.getType() == Keywords.REAL){
+		else if( lookaheadType() == Keywords.INTEGER || lookaheadType() == Keywords.REAL){
 			kind = Kinds.VARIABLE;
 			//type Integer or Real.
 			varType = standard_type();
@@ -260,7 +310,7 @@ public class MyParser {
 	private Keywords standard_type() {
 		Keywords standardType = null;
 		
-		switch( lookahead.getType()){
+		switch( lookaheadType()){
 			case INTEGER:
 				standardType = Keywords.INTEGER;
 				match( Keywords.INTEGER);
@@ -281,17 +331,14 @@ public class MyParser {
 	//handles sub program declarations
 	private SubProgramDeclarationsNode subprogram_declarations() {
 		SubProgramDeclarationsNode subProgs = new SubProgramDeclarationsNode();
-		if( lookahead.getType() == Keywords.FUNCTION || lookahead.getType() == Keywords.PROCEDURE){
+		//loops until all sub programs are accounted for, the lambda case ends it.
+		while( lookaheadType() == Keywords.FUNCTION || lookaheadType() == Keywords.PROCEDURE){
 			//adds the current sub program.
 			subProgs.addSubProgramDeclaration( subprogram_declaration());
-			//calls itself until all sub programs are accounted for.
-			if( lookahead.getType() == Keywords.SEMI_COLON){
-				match( Keywords.SEMI_COLON);		
-				subProgs.addAllSubProgramDeclarations( subprogram_declarations().getProcs());
+			if( lookaheadType() != Keywords.SEMI_COLON){
+				break;
 			}
-		}
-		else{
-			//lambda case
+			match( Keywords.SEMI_COLON);
 		}
 		
 		return subProgs;		
@@ -311,7 +358,7 @@ public class MyParser {
 		symbolTable.popTable();
 		//if subprogram is a function it can be used as a variable, this block assigns a type, Integer or Real.
 		if( sub.getSubType() == Keywords.FUNCTION){
-			((FunctionSymbol)symbolTable.getSymbol( sub.getName())).setType(sub.getReturnType());
+			((FunctionSymbol)sub.getSymbol()).setType(sub.getReturnType());
 		}
 		return sub;
 	}
@@ -322,14 +369,15 @@ public class MyParser {
 		ArrayList<VariableNode> args = null;
 		
 		//function case
-		if( lookahead.getType() == Keywords.FUNCTION){
+		if( lookaheadType() == Keywords.FUNCTION){
 			match( Keywords.FUNCTION);
-			if( lookahead.getType() == Keywords.ID){
-				sub = new SubProgramNode( lookahead.getLexeme(), Keywords.FUNCTION);
+			if( lookaheadType() == Keywords.ID){
+				sub = new SubProgramNode( lookaheadLexeme(), Keywords.FUNCTION);
 				match( Keywords.ID);
 			}
 			//adds the function to the symbol table. This also pushes a fresh symbol table on to the stack.
 			symbolTable.add(sub.getName(), Kinds.FUNCTION, null, null, null);
+			bindSubprogram( sub);
 			//builds the argument variables.
 			args = arguments();
 			//adds the arguments to the SubProgramNode
@@ -343,14 +391,15 @@ public class MyParser {
 			match( Keywords.SEMI_COLON);
 		}
 		//procedure case 
-		else if( lookahead.getType() == Keywords.PROCEDURE){
+		else if( lookaheadType() == Keywords.PROCEDURE){
 			match( Keywords.PROCEDURE);
-			if( lookahead.getType() == Keywords.ID){
-				sub = new SubProgramNode( lookahead.getLexeme(), Keywords.PROCEDURE);
+			if( lookaheadType() == Keywords.ID){
+				sub = new SubProgramNode( lookaheadLexeme(), Keywords.PROCEDURE);
 				match( Keywords.ID);
 			}
 			//adds the procedure to the symbol table. This also pushes a fresh symbol table on to the stack.
 			symbolTable.add(sub.getName(), Kinds.PROCEDURE, null, null, null);
+			bindSubprogram( sub);
 			//adds arguments to the SubProgramNode
 			args = arguments();
 			sub.setArguments( args);
@@ -359,11 +408,19 @@ public class MyParser {
 		
 		return sub;
 	}
+	
+	//keeps the symbol of a sub program on its node, for the code generator.
+	private void bindSubprogram( SubProgramNode sub) {
+		Symbol symbol = symbolTable.getSymbol( sub.getName());
+		if( symbol instanceof ProcedureSymbol){
+			sub.setSymbol( (ProcedureSymbol) symbol);
+		}
+	}
 
 	//handles building argument variables.
 	private ArrayList<VariableNode> arguments() {
 		ArrayList<VariableNode> argsList = new ArrayList<VariableNode>();
-		if( lookahead.getType() == Keywords.LEFT_PARENTHESES){
+		if( lookaheadType() == Keywords.LEFT_PARENTHESES){
 			match( Keywords.LEFT_PARENTHESES);
 			//parameter list parses argument names and returns VariableNodes.
 			//true is passed because these are arguments and require additional
@@ -379,14 +436,17 @@ public class MyParser {
 
 	//parses out identifiers and builds a list of VariableNodes.
 	private ArrayList<VariableNode> parameter_list( boolean isArguement) {
-		ArrayList<String> identifierList = identifier_list();
-		match( Keywords.COLON);
-		//builds a list of VariableNodes with a given type, Integer or Real.
-		ArrayList<VariableNode> argsList = type( identifierList, isArguement);
-		if( lookahead.getType() == Keywords.SEMI_COLON){
+		ArrayList<VariableNode> argsList = new ArrayList<VariableNode>();
+		//loops until all parameter lists are converted to VariableNodes.
+		while( true){
+			ArrayList<String> identifierList = identifier_list();
+			match( Keywords.COLON);
+			//builds a list of VariableNodes with a given type, Integer or Real.
+			argsList.addAll( type( identifierList, isArguement));
+			if( lookaheadType() != Keywords.SEMI_COLON){
+				break;
+			}
 			match( Keywords.SEMI_COLON);
-			//calls itself until all parameter lists are converted to VariableNodes.
-			argsList.addAll( parameter_list( isArguement));
 		}
 		return argsList;
 	}
@@ -394,7 +454,7 @@ public class MyParser {
 	//handles multiple statements grouped together and contained within a Begin/End block.
 	private CompoundStatementNode compound_statement() {
 		CompoundStatementNode compState = null;
-		if( lookahead.getType() == Keywords.BEGIN){
+		if( lookaheadType() == Keywords.BEGIN){
 			match( Keywords.BEGIN);
 			//builds all statements and returns a CompoundStatementNode
 			compState = optional_statements();
@@ -408,7 +468,7 @@ public class MyParser {
 	//calls statement_list and adds the StatementNodes to the CompoundStatementNode
 	private CompoundStatementNode optional_statements() {
 		CompoundStatementNode compState = new CompoundStatementNode();
-		Keywords nextType = lookahead.getType();
+		Keywords nextType = lookaheadType();
 		if( nextType == Keywords.ID || nextType == Keywords.BEGIN || 
 				nextType == Keywords.IF || nextType == Keywords.WHILE){
 			//statement_list returns built StatementNodes to add to the CompoundStatementNode
@@ -427,10 +487,10 @@ public class MyParser {
 		ArrayList<StatementNode> stateList = new ArrayList<StatementNode>();
 		//returns a StatementNode and adds it to stateList
 		stateList.add( statement());
-		if( lookahead.getType() == Keywords.SEMI_COLON){
+		//loops until all StatmentNodes have been built
+		while( lookaheadType() == Keywords.SEMI_COLON){
 			match( Keywords.SEMI_COLON);
-			//calls itself until all StatmentNodes have been built
-			stateList.addAll( statement_list());
+			stateList.add( statement());
 		}
 		
 		return stateList;
@@ -438,25 +498,22 @@ public class MyParser {
 
 	//builds a StatementNode
 	private StatementNode statement() { 
-		//the analyzer makes sure expression trees are structured correctly to provide 
-		//mathematically correct results.
-		SemanticAnalyzer analyzer = null;
-		switch ( lookahead.getType()){
+		switch ( lookaheadType()){
 			case ID: //handles variable, array, function, and procedure assignments
-				String identifier = lookahead.getLexeme();
+				//the name is looked up once, and its symbol is kept on the node built for it.
+				Symbol symbol = symbolTable.getSymbol( lookaheadId());
 				//case array or variable
-				if( symbolTable.isArrayName( identifier) || symbolTable.isVariableName( identifier)){
+				if( symbol instanceof VariableSymbol){
 					AssignmentStatementNode node = new AssignmentStatementNode();
 					//handles VariableNode construction
-					VariableNode var = variable();
+					VariableNode var = variable( symbol);
 					//sets VariableNode side of the AssignmentNode tree
 					node.setLvalue( var);
 					match(Keywords.ASSIGNMENT_OPERATOR);
 					
 					//analyzes expression before assigning it to the ExpressionNode side of 
 					//the AssignmentNode tree.
-					analyzer = new SemanticAnalyzer( expression());
-					node.setExpression( analyzer.codeFolding());
+					node.setExpression( fold( expression()));
 					
 					//check that a real is not getting assigned to an integer and vise versa.
 					if( node.getLvalue().getType() != node.getExpression().getType()){
@@ -466,13 +523,13 @@ public class MyParser {
 					return node;
 				}
 				//sub program case
-				else if( symbolTable.isFunctionName( identifier) || symbolTable.isProcedureName( identifier)){
+				else if( symbol instanceof ProcedureSymbol){
 					//procedure_statement returns a ProcedureStatementNode, which handles
 					//a procedure tree.
-					return procedure_statement();
+					return procedure_statement( (ProcedureSymbol) symbol);
 				}
 				else{
-					error( identifier + " has not been declared");
+					error( lookaheadLexeme() + " has not been declared");
 				}
 				break;
 			case IF: //if statement case
@@ -481,12 +538,11 @@ public class MyParser {
 				elseCount++;
 				match( Keywords.IF);
 				//analyzes expression before assigning it to the ExpressionNode side of the test tree.
-				analyzer = new SemanticAnalyzer( expression());
-				ifnode.setTest( analyzer.codeFolding());
+				ifnode.setTest( fold( expression()));
 				match( Keywords.THEN);
 				//builds and assigns then statement
 				ifnode.setThenStatement( statement());
-				if( lookahead.getType() == Keywords.ELSE){
+				if( lookaheadType() == Keywords.ELSE){
 					match( Keywords.ELSE);
 					//builds and assigns the else statement
 					ifnode.setElseStatement( statement());
@@ -499,8 +555,7 @@ public class MyParser {
 				elseCount++;
 				match( Keywords.WHILE);
 				//analyzes expression before assigning it to the ExpressionNode side of the test tree.
-				analyzer = new SemanticAnalyzer( expression());
-				whilenode.setTest( analyzer.codeFolding());
+				whilenode.setTest( fold( expression()));
 				match( Keywords.DO);
 				//builds and assigns then statement
 				whilenode.setThenStatement( statement());
@@ -515,24 +570,25 @@ public class MyParser {
 		return null;
 	}
 
-	//Builds a VariableNode
-	private VariableNode variable() {
-		String id = lookahead.getLexeme();
+	//Builds a VariableNode for the name at the lookahead, which resolved to symbol.
+	private VariableNode variable( Symbol symbol) {
+		int id = lookaheadId();
 		match( Keywords.ID);
 		//variable case
-		if( symbolTable.isVariableName( id)){
-			VariableNode var = new VariableNode( id, symbolTable.getType(id));
+		if( symbol instanceof VariableSymbol){
+			VariableNode var = new VariableNode( id, ((VariableSymbol) symbol).getType());
+			var.setSymbol( symbol);
 			return var;
 		}
 		//array case
-		else if( symbolTable.isArrayName( id)){
+		else if( symbol instanceof ArraySymbol){
 			//this is an assignment for a single element in an array. Thus it requires an index value
-			if( lookahead.getType() == Keywords.LEFT_SQUARE_BRACKET){
-				ArrayNode array = new ArrayNode( id, symbolTable.getType( id));
+			if( lookaheadType() == Keywords.LEFT_SQUARE_BRACKET){
+				ArrayNode array = new ArrayNode( id, ((ArraySymbol) symbol).getType());
+				array.setSymbol( symbol);
 				match( Keywords.LEFT_SQUARE_BRACKET);
 				//analyzes expression before assigning it to the ExpressionNode side of the ArrayNode tree.
-				SemanticAnalyzer analyzer = new SemanticAnalyzer( expression());
-				array.setExpression( analyzer.codeFolding());
+				array.setExpression( fold( expression()));
 				match( Keywords.RIGHT_SQUARE_BRACKET);
 				
 				return array;
@@ -547,9 +603,11 @@ public class MyParser {
 
 	//handles ProceudreStatmentNode trees. This is used to build the procedure/function call 
 	//during code generation.
-	private ProcedureStatementNode procedure_statement() {
+	private ProcedureStatementNode procedure_statement( ProcedureSymbol symbol) {
 		ProcedureStatementNode node = new ProcedureStatementNode();
-		node.setLvalue( new VariableNode( lookahead.getLexeme(), Keywords.PROCEDURE));
+		node.setLvalue( new VariableNode( lookaheadId(), Keywords.PROCEDURE));
+		node.getLvalue().setSymbol( symbol);
+		node.setSymbol( symbol);
 		match( Keywords.ID);
 		match( Keywords.LEFT_PARENTHESES);
 		//builds and adds all expressions being passed to the procedure.
@@ -563,12 +621,11 @@ public class MyParser {
 	private ArrayList<ExpressionNode> expression_list() {
 		ArrayList<ExpressionNode> expList = new ArrayList<ExpressionNode>();
 		//analyzes expression before assigning it to the ExpressionNode side of the the procedure.
-		SemanticAnalyzer analyzer = new SemanticAnalyzer( expression());
-		expList.add( analyzer.codeFolding());
-		if( lookahead.getType() == Keywords.COMMA){
+		expList.add( fold( expression()));
+		//loops until all expressions are built.
+		while( lookaheadType() == Keywords.COMMA){
 			match( Keywords.COMMA);
-			//calls itself until all expressions are built.
-			expList.addAll( expression_list());
+			expList.add( fold( expression()));
 		}
 		
 		return expList;
@@ -576,89 +633,74 @@ public class MyParser {
 
 	//Builds an ExpressionNode 
 	private ExpressionNode expression() {
-		ExpressionNode exp = simple_expression();
-		if( isRelop( lookahead)){ //case relational operator
-			OperationNode op = new OperationNode( lookahead.getType());
-			op.setLeft( exp);
-			relop();
-			op.setRight( simple_expression());
-			return op;
-		}
-		else{
-			//lambda case
-		}
-		
-		return exp;
+		return expression( RELATIONAL);
 	}
-	
-	//builds an ExpressionNode
-	private ExpressionNode simple_expression() {
-		//term case
-		if( isTerm(lookahead)){
-			//builds the expression from the term
-			ExpressionNode exp = term();
-			return simple_part( exp);
-		}
-		//unary operator case
-		else if( lookahead.getType() == Keywords.MINUS || lookahead.getType() == Keywords.PLUS){
-			//handles the identification of a unary sign.
+
+	//builds an ExpressionNode by precedence climbing. Operators that bind at
+	//least as tightly as minPrecedence are taken in a loop, each one joining
+	//the tree built so far as its left side, so operators of the same
+	//precedence associate to the left. The right side of each operator is
+	//built by the same method, taking only operators that bind tighter.
+	private ExpressionNode expression( int minPrecedence) {
+		ExpressionNode exp = null;
+		Keywords nextType = lookaheadType();
+		//a simple expression may start with a sign, which applies to its first term.
+		if( minPrecedence <= ADDING && (nextType == Keywords.MINUS || nextType == Keywords.PLUS)){
 			UnaryOperationNode unop = sign();
-			ExpressionNode exp = term();
-			unop.setExpression( simple_part( exp));
-			return unop;
+			unop.setExpression( expression( MULTIPLYING));
+			exp = unop;
 		}
-		else{
+		else if( minPrecedence <= ADDING && !isTerm( nextType)){
 			error( "expected simple expression");
-		}
-		
-		return null;
-	}
-
-	//handles addop creation
-	private ExpressionNode simple_part( ExpressionNode leftExp) {
-		if( lookahead.getType() == Keywords.PLUS || lookahead.getType() == Keywords.MINUS){
-			//builds an addop OperatiorNode
-			OperationNode opnode = addop();
-			opnode.setLeft( leftExp);
-			ExpressionNode rightExp = term();
-			opnode.setRight( simple_part( rightExp));
-			return opnode;
+			return null;
 		}
 		else{
-			//lambda option
+			exp = factor();
 		}
 		
-		return leftExp;
+		int precedence = precedence( lookaheadType());
+		while( precedence >= minPrecedence){
+			OperationNode op = new OperationNode( lookaheadType());
+			match( lookaheadType());
+			op.setLeft( exp);
+			op.setRight( expression( precedence + 1));
+			exp = op;
+			//case relational operator, which takes only one on each side.
+			if( precedence == RELATIONAL){
+				break;
+			}
+			precedence = precedence( lookaheadType());
+		}
 		
+		return exp;
 	}
 
-	/**
-	 * Executes the rule for the term non-terminal symbol in
-	 * the expression grammar.
-	 */
-	private ExpressionNode term() {
-	    ExpressionNode exp = factor();
-	    return term_prime( exp);
-	}
-
-	/**
-	 * Executes the rule for the term&prime; non-terminal symbol in
-	 * the expression grammar.
-	 */
-	private ExpressionNode term_prime( ExpressionNode leftExp) {
-	    if( isMulop( lookahead) ) {
-	    	//builds a mulop OperationNode
-	        OperationNode opnode = mulop();
-	        opnode.setLeft( leftExp);
-	        ExpressionNode rightExp = factor();
-	        opnode.setRight( term_prime( rightExp));
-	        return opnode;
-	    }
-	    else{
-	        // lambda option
-	    }
-	    
-	    return leftExp;
+	//the precedence of a binary operator, higher binding tighter, or 0 if the
+	//token is not one.
+	private static int precedence( Keywords type) {
+		if( type == null){
+			return 0;
+		}
+		switch( type){
+			case EQUALITY_OPERATOR:
+			case NOT_EQUAL:
+			case LESS_THAN:
+			case LESS_THAN_EQUAL_TO:
+			case GREATER_THAN_EQUAL_TO:
+			case GREATER_THAN:
+				return RELATIONAL;
+			case PLUS:
+			case MINUS:
+				return ADDING;
+			case TIMES:
+			case DIVIDE:
+			case AND:
+			case MOD:
+			case DIV:
+				return MULTIPLYING;
+			default:
+				return 0;
+		}
 	}
 
 	/**
@@ -669,7 +711,7 @@ public class MyParser {
 		
 		ExpressionNode exp = null;
 		
-	    switch ( lookahead.getType()) {
+	    switch ( lookaheadType()) {
 	    	//expression in parentheses case
 	        case LEFT_PARENTHESES:
 	            match( Keywords.LEFT_PARENTHESES);
@@ -679,27 +721,29 @@ public class MyParser {
 	        //straight up number case
 	        case NUMBER:
 	        	//real number case
-	        	if( lookahead.getLexeme().contains(".")){
-	        		exp = new ValueNode( lookahead.getLexeme(), Keywords.REAL);
+	        	if( lookaheadIsReal()){
+	        		exp = new ValueNode( lookaheadRealValue());
 	        	//integer case
 	        	}else{
-	        		exp = new ValueNode( lookahead.getLexeme(), Keywords.INTEGER);
+	        		exp = new ValueNode( integerValue());
 	        	}
 	        	
 	            match( Keywords.NUMBER);
 	            break;
 	        //variable, array, or function case
 	        case ID: 
-	        	String identifier = lookahead.getLexeme();
+	        	int identifier = lookaheadId();
+	        	Symbol symbol = symbolTable.getSymbol( identifier);
 	        	
 	        	//variable or array case
-				if( symbolTable.isArrayName( identifier) || symbolTable.isVariableName( identifier)){
-					return variable();
+				if( symbol instanceof VariableSymbol){
+					return variable( symbol);
 				}
 				//function case
-				else if( symbolTable.isFunctionName( identifier)){
+				else if( symbol instanceof FunctionSymbol){
 					//builds FunctionNode from the information in the SymbolTable
-					FunctionNode fnode = new FunctionNode( identifier, symbolTable.getType(identifier));
+					FunctionNode fnode = new FunctionNode( identifier, ((FunctionSymbol) symbol).getType());
+					fnode.setSymbol( symbol);
 					match( Keywords.ID);
 					match( Keywords.LEFT_PARENTHESES);
 					//handles function arguments
@@ -708,7 +752,7 @@ public class MyParser {
 					return fnode;
 				}
 				else{
-					error( identifier + " has not been declared");
+					error( lookaheadLexeme() + " has not been declared");
 				}
 	        	break;
 	        //Not operator case
@@ -727,7 +771,7 @@ public class MyParser {
 
 	//handles an expression with a sign
 	private UnaryOperationNode sign() {
-		Keywords type = lookahead.getType();
+		Keywords type = lookaheadType();
 		
 		switch( type){
 			case MINUS:
@@ -745,9 +789,8 @@ public class MyParser {
 	}
 
 	//tests if the token is a term
-	private boolean isTerm( Token token) {
+	private boolean isTerm( Keywords nextType) {
 		boolean answer = false;
-		Keywords nextType = token.getType();
 		if( nextType == Keywords.ID || nextType == Keywords.NUMBER ||
 				nextType == Keywords.NOT || nextType == Keywords.LEFT_PARENTHESES){
 			answer = true;
@@ -755,120 +798,27 @@ public class MyParser {
 		return answer;
 	}
 
-	//builds a relational OperationNode
-	private OperationNode relop() {
-		Keywords type = lookahead.getType();
-		
-		switch( type){
-			case EQUALITY_OPERATOR:
-				match( Keywords.EQUALITY_OPERATOR);
-				break;
-			case NOT_EQUAL:
-				match( Keywords.NOT_EQUAL);
-				break;
-			case LESS_THAN:
-				match( Keywords.LESS_THAN);
-				break;
-			case LESS_THAN_EQUAL_TO:
-				match( Keywords.LESS_THAN_EQUAL_TO);
-				break;
-			case GREATER_THAN_EQUAL_TO:
-				match( Keywords.GREATER_THAN_EQUAL_TO);
-				break;
-			case GREATER_THAN:
-				match( Keywords.LESS_THAN);
-				break;
-			default:
-				error( "expected relop");
-		}
-		
-		return new OperationNode( type);
-		
-	}
-
-	//tests if token is a relational operator
-	private boolean isRelop( Token token){
-		boolean answer = false;
-		Keywords nextType = token.getType();
-		if( nextType == Keywords.EQUALITY_OPERATOR || nextType == Keywords.NOT_EQUAL || nextType == Keywords.LESS_THAN || 
-				nextType == Keywords.LESS_THAN_EQUAL_TO || nextType == Keywords.GREATER_THAN_EQUAL_TO || 
-				nextType == Keywords.GREATER_THAN){
-			answer = true;
-		}
-		return answer;
-	}
-    
-    /**
-     * Executes the rule for the addop non-terminal symbol in
-     * the expression grammar.
-     * @return addop OperationNode of the given type (Plus or Minus).
-     */
-    private OperationNode addop() {
-    	Keywords type = lookahead.getType();
-    	
-        if( type == Keywords.PLUS) {
-            match( Keywords.PLUS);
-        }
-        else if( type == Keywords.MINUS) {
-            match( Keywords.MINUS);
-        }
-        else {
-            error( "Addop");
-        }
-        
-        return new OperationNode( type);
-    }
-    
-    /**
-     * Determines whether or not the given token is
-     * a mulop token.
-     * @param token The token to check.
-     * @return true if the token is a mulop, false otherwise
-     */
-    private boolean isMulop( Token token) {
-        boolean answer = false;
-        switch( token.getType()){
-        	case TIMES:
-        	case DIVIDE:
-        	case AND:
-        	case MOD:
-        	case DIV:
-        		answer = true;
-        	default:
-        		break;
-        }
-        return answer;
+    //the analyzer makes sure expression trees are structured correctly to provide 
+    //mathematically correct results. Returns the folded expression.
+    private ExpressionNode fold( ExpressionNode exp) {
+    	long start = timing ? System.nanoTime() : 0;
+    	SemanticAnalyzer analyzer = new SemanticAnalyzer( exp);
+    	ExpressionNode folded = analyzer.codeFolding();
+    	if( timing) {
+    		foldNanos += System.nanoTime() - start;
+    	}
+    	return folded;
     }
     
-    /**
-     * Executes the rule for the mulop non-terminal symbol in
-     * the expression grammar.
-     * @return mulop OperationNode of given type (Multiply, divide, and, modulus, integer division)
-     */
-    private OperationNode mulop() {
-    	Keywords type = lookahead.getType();
-    	
-    	switch( type){
-    		case TIMES:
-	            match( Keywords.TIMES);
-	            break;
-    		case DIVIDE:
-	            match( Keywords.DIVIDE);
-	            break;
-    		case AND:
-    			match( Keywords.AND);
-    			break;
-    		case MOD:
-    			match( Keywords.MOD);
-    			break;
-    		case DIV:
-    			match( Keywords.DIV);
-    			break;
-	        default:
-	            error( "Mulop");
+    //reads the next token from the scanner.
+    private Token nextToken() throws IOException {
+    	if(! timing) {
+    		return scanner.nextToken();
     	}
-    	
-    	return new OperationNode( type);
+    	long start = System.nanoTime();
+    	Token token = scanner.nextToken();
+    	scanNanos += System.nanoTime() - start;
+    	return token;
     }
     
     /**
@@ -884,9 +834,14 @@ public class MyParser {
      */
     private void match( Keywords expected) {
         //System.out.println("match( " + expected + ")");
-        if( this.lookahead.getType() == expected) {
+        if( lookaheadType() == expected) {
+            //case the tokens were scanned up front.
+            if( tokens != null) {
+                cursor++;
+                return;
+            }
             try {
-                this.lookahead = scanner.nextToken();
+                this.lookahead = nextToken();
                 if( this.lookahead == null) {
                     this.lookahead = new Token( "End of File", null);
                 }
@@ -895,11 +850,62 @@ public class MyParser {
             }
         }
         else {
-            error("Match of " + expected + " found " + this.lookahead.getType()
+            error("Match of " + expected + " found " + lookaheadType()
                     + " instead.");
         }
     }
     
+    //scans the whole program in to the token buffer.
+    private void fillTokens() throws IOException {
+    	long start = timing ? System.nanoTime() : 0;
+    	tokens = new TokenBuffer();
+    	scanner.fill( tokens);
+    	cursor = 0;
+    	if( timing) {
+    		scanNanos += System.nanoTime() - start;
+    	}
+    }
+    
+    //the type of the next token, null at the end of the file.
+    private Keywords lookaheadType() {
+    	return (tokens != null) ? tokens.getType( cursor) : lookahead.getType();
+    }
+    
+    //the text of the next token.
+    private String lookaheadLexeme() {
+    	return (tokens != null) ? tokens.getLexeme( cursor) : lookahead.getLexeme();
+    }
+    
+    //the IdentifierTable id of the next token, -1 if it is not an identifier.
+    private int lookaheadId() {
+    	return (tokens != null) ? tokens.getId( cursor) : lookahead.getId();
+    }
+    
+    //true if the next token is a number with a fraction.
+    private boolean lookaheadIsReal() {
+    	return (tokens != null) ? tokens.isReal( cursor) : lookahead.isReal();
+    }
+    
+    //the value of the next token, an integer number.
+    private long lookaheadIntegerValue() {
+    	return (tokens != null) ? tokens.getIntegerValue( cursor) : lookahead.getIntegerValue();
+    }
+    
+    //the value of the next token, an integer number, reporting one too large for 32 bits as 0.
+    private long integerValue() {
+    	long value = lookaheadIntegerValue();
+    	if( value == NumberLiteral.OUT_OF_RANGE){
+    		error( " integer " + lookaheadLexeme() + " out of range");
+    		return 0;
+    	}
+    	return value;
+    }
+    
+    //the value of the next token, a real number.
+    private double lookaheadRealValue() {
+    	return (tokens != null) ? tokens.getRealValue( cursor) : lookahead.getRealValue();
+    }
+    
     /**
      * Errors out of the parser.
      * Prints an error message and then exits the program.
@@ -907,9 +913,68 @@ public class MyParser {
      */
     private void error( String message) {
     	noError = false;
-        System.out.println( "Error " + message + " at line " + 
-                this.scanner.getLine() + " column " + 
-                this.scanner.getColumn());
+    	int line = (tokens != null) ? tokens.getLine( cursor) : this.scanner.getLineNumber();
+    	int column = (tokens != null) ? tokens.getColumn( cursor) : this.scanner.getColumnNumber();
+    	Diagnostic diagnostic = new Diagnostic( message, line, column, true);
+    	diagnostics.add( diagnostic);
+    	if(! quiet) {
+    		System.out.println( diagnostic);
+    	}
         //System.exit( 1);
     }
+    
+    /**
+     * Returns all errors found while parsing, and the warnings the scanner
+     * found if the parser is quiet, in the order they were found.
+     * @return a list of diagnostics, with no errors if the parse succeeded.
+     */
+    public ArrayList<Diagnostic> getDiagnostics() {
+    	return diagnostics;
+    }
+    
+    /**
+     * Stops the parser and its scanner from printing. Errors and warnings
+     * are only collected, and can be read with getDiagnostics().
+     * @param quiet, true to stop printing.
+     */
+    public void setQuiet( boolean quiet) {
+    	this.quiet = quiet;
+    	scanner.setDiagnostics( quiet ? diagnostics : null);
+    }
+    
+    /**
+     * Scans the whole program in to a TokenBuffer before parsing, and walks
+     * it by token number, instead of asking the scanner for one Token object
+     * at a time. This saves a Token and a String for most tokens, at the cost
+     * of reporting every scanner warning in the file before any parse error.
+     * @param buffered, true to scan the program up front.
+     */
+    public void setBuffered( boolean buffered) {
+    	this.buffered = buffered;
+    }
+    
+    /**
+     * Turns on timing of the scanner and of expression folding. Timing adds
+     * a clock read around every token, so it is off by default.
+     * @param timing, true to record scan and fold times.
+     */
+    public void setTiming( boolean timing) {
+    	this.timing = timing;
+    }
+    
+    /**
+     * Returns the time spent in the scanner since timing was turned on.
+     * @return time in nanoseconds.
+     */
+    public long getScanNanos() {
+    	return scanNanos;
+    }
+    
+    /**
+     * Returns the time spent folding expressions since timing was turned on.
+     * @return time in nanoseconds.
+     */
+    public long getFoldNanos() {
+    	return foldNanos;
+    }
 }
\ No newline at end of file
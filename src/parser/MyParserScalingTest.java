@@ -0,0 +1,113 @@
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+import scanner.IdentifierTable;
+
+/**
+ * 
+ * @author Allen Burgett
+ * Checks that declaration and statement lists are parsed without
+ * recursing once per element, so long programs parse on a small stack,
+ * and that every element ends up in the tree. The million element run is
+ * in the benchmark package, see CompilerBenchmark.runLongLists.
+ * That the parse is linear is checked by the memory it allocates, which,
+ * unlike its time, is the same from run to run.
+ */
+
+public class MyParserScalingTest {
+
+	//much less than one frame per declaration or statement would need.
+	private static final long STACK = 256 * 1024;
+
+	//forgets the names of the long programs, so later tests do not carry them.
+	@After
+	public void tearDown() {
+		IdentifierTable.reset();
+	}
+
+	@Test
+	public void testLongListsOnSmallStack() throws Exception {
+		MyParser parser = parse(100000, 100000);
+		assertNotNull(parser);
+		assertEquals(100000, parser.prog.getVariables().getVars().size());
+		//the statements and the closing v0 := 0.
+		assertEquals(100001, parser.prog.getMain().getStatements().size());
+	}
+
+	@Test
+	public void testLinearWork() throws Exception {
+		//the first parse also loads the classes.
+		allocated(50000);
+		long half = allocated(50000);
+		long whole = allocated(100000);
+		//twice the elements take about twice the memory; copying the lists would take four times.
+		assertTrue("50000 elements allocated " + half + " bytes, 100000 allocated " + whole,
+				whole < half * 3);
+	}
+
+	//the bytes allocated while parsing a program of the given number of declarations and statements.
+	private long allocated(int elements) throws Exception {
+		final String text = program(elements, elements);
+		final long[] bytes = { 0};
+		Thread thread = new Thread(null, new Runnable(){
+			public void run(){
+				com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+				long start = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+				MyParser parser = new MyParser(text, false);
+				parser.setQuiet(true);
+				if(parser.program()){
+					bytes[0] = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+				}
+			}
+		}, "parse", STACK);
+		thread.start();
+		thread.join();
+		assertTrue(bytes[0] > 0);
+		IdentifierTable.reset();
+		return bytes[0];
+	}
+
+	//parses a program on a thread with a small stack, and returns the parser, or null if it failed.
+	private MyParser parse(int declarations, int statements) throws Exception {
+		final String text = program(declarations, statements);
+		final MyParser[] parsed = { null};
+		Thread thread = new Thread(null, new Runnable(){
+			public void run(){
+				MyParser parser = new MyParser(text, false);
+				parser.setQuiet(true);
+				if(parser.program()){
+					parsed[0] = parser;
+				}
+			}
+		}, "parse", STACK);
+		thread.start();
+		thread.join();
+		return parsed[0];
+	}
+
+	//half of the variables are declared in one long list, the rest one to a var.
+	private static String program(int declarations, int statements){
+		StringBuilder text = new StringBuilder("program big;\nvar v0");
+		int half = declarations / 2;
+		for(int i = 1; i < half; i++){
+			text.append(", v").append(i);
+		}
+		text.append(" : integer;\n");
+		for(int i = half; i < declarations; i++){
+			text.append("var v").append(i).append(" : integer;\n");
+		}
+		text.append("begin\n");
+		for(int i = 0; i < statements; i++){
+			text.append("v").append(i % declarations).append(" := v").append((i * 7) % declarations).append(" + ").append(i).append(";\n");
+		}
+		return text.append("v0 := 0\nend\n.\n").toString();
+	}
+}
@@ -1,7 +1,5 @@
 package parser;
 
-import java.util.HashMap;
-
 /**
  * Represents a procedure in the symbol table.
  * @author Allen Burgett
@@ -9,7 +7,8 @@ import java.util.HashMap;
  */
 public class ProcedureSymbol extends Symbol {
 	
-	private HashMap<String, Symbol> localSymbolTable = new HashMap<String, Symbol>();
+	//empty until the symbol table closes the procedure's scope.
+	private ScopeTable localSymbolTable = ScopeTable.EMPTY;
 
 	/**
 	 * Initializes a ProcedureSymbol. Invokes Symbol's Constructor to set the identifier.
@@ -23,15 +22,15 @@ public class ProcedureSymbol extends Symbol {
 	 * 
 	 * @return a table of all symbols contained in this procedure.
 	 */
-	public HashMap<String, Symbol> getLocalSymbolTable(){
+	public ScopeTable getLocalSymbolTable(){
 		return this.localSymbolTable;
 	}
 	
 	/**
-	 * Associate a HashMap of Strings and Symbols with this procedure.
+	 * Associate a table of Symbols with this procedure.
 	 * @param table, a table containg the symbols associated with this procedure.
 	 */
-	public void storeTable( HashMap<String, Symbol> table){
+	public void storeTable( ScopeTable table){
 		this.localSymbolTable = table;
 	}
 	
@@ -0,0 +1,100 @@
+package parser;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The symbols declared in one scope, frozen when the SymbolTable closes the
+ * scope, and keyed by the IdentifierTable id of their names. The symbols
+ * are kept in a single array in the order they were declared. A small scope
+ * is searched straight through that array; a larger one also has an open
+ * addressed index of positions in the array, found from the low bits of an
+ * id, so no String is hashed or compared.
+ * @author Allen Burgett
+ *
+ */
+public class ScopeTable {
+
+	/** The table of a scope that declares nothing, shared by all of them. */
+	public static final ScopeTable EMPTY = new ScopeTable( new Symbol[0]);
+
+	//scopes this small are searched without an index.
+	private static final int SMALL = 8;
+
+	private final Symbol[] symbols;
+	//position + 1 of the symbol in each slot, 0 for an empty slot, or null for a small scope.
+	private final int[] index;
+
+	/**
+	 * Freezes the symbols of a closed scope.
+	 * @param symbols, the symbols in the order they were declared, no two with the same name.
+	 */
+	ScopeTable( Symbol[] symbols){
+		this.symbols = symbols;
+		if( symbols.length <= SMALL){
+			this.index = null;
+			return;
+		}
+		//kept at most half full, so searches always end at an empty slot.
+		int[] index = new int[Integer.highestOneBit( symbols.length) * 4];
+		int mask = index.length - 1;
+		for( int i = 0; i < symbols.length; i++){
+			int slot = symbols[i].getId() & mask;
+			while( index[slot] != 0){
+				slot = (slot + 1) & mask;
+			}
+			index[slot] = i + 1;
+		}
+		this.index = index;
+	}
+
+	/**
+	 * Finds the symbol of a name.
+	 * @param id, id of the name.
+	 * @return the symbol, or null if the name is not declared in this scope.
+	 */
+	public Symbol get( int id){
+		if( id < 0){
+			return null;
+		}
+		if( index == null){
+			for( Symbol symbol : symbols){
+				if( symbol.getId() == id){
+					return symbol;
+				}
+			}
+			return null;
+		}
+		int mask = index.length - 1;
+		for( int slot = id & mask; index[slot] != 0; slot = (slot + 1) & mask){
+			Symbol symbol = symbols[index[slot] - 1];
+			if( symbol.getId() == id){
+				return symbol;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param id, id of a name.
+	 * @return true if the name is declared in this scope.
+	 */
+	public boolean containsKey( int id){
+		return get( id) != null;
+	}
+
+	/**
+	 * @return the symbols of this scope, in the order they were declared.
+	 */
+	public Collection<Symbol> values(){
+		return Collections.unmodifiableList( Arrays.asList( symbols));
+	}
+
+	/**
+	 * @return the number of symbols declared in this scope.
+	 */
+	public int size(){
+		return symbols.length;
+	}
+}
@@ -0,0 +1,11 @@
+package parser;
+
+/**
+ * Enum for where a variable's value is kept: under a label in the data
+ * section, at an offset from the frame pointer, or in a saved register.
+ * @author Allen Burgett
+ *
+ */
+public enum StorageClass {
+	GLOBAL, FRAME, REGISTER
+}
@@ -1,5 +1,7 @@
 package parser;
 
+import scanner.IdentifierTable;
+
 /**
  * Represents a generic symbol in the symbol table.
  * @author Allen Burgett
@@ -7,13 +9,15 @@ package parser;
  */
 public class Symbol {
 	protected String identifier;
+	protected int id;
 	
 	/**
 	 * Initializes a Symbol.
 	 * @param identifier, name of symbol.
 	 */
 	public Symbol(String identifier){
-		this.identifier = identifier;
+		this.id = IdentifierTable.intern( identifier);
+		this.identifier = IdentifierTable.name( id);
 	}
 	
 	/**
@@ -23,6 +27,14 @@ public class Symbol {
 	public String getIdentifier() {
 		return identifier;
 	}
+	
+	/**
+	 * 
+	 * @return id of the symbol's name in the IdentifierTable.
+	 */
+	public int getId() {
+		return id;
+	}
 
 	/**
 	 * Convert symbol to string.
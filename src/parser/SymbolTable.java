@@ -1,20 +1,41 @@
 package parser;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Stack;
+import java.util.Collections;
 
+import scanner.IdentifierTable;
 import scanner.Keywords;
 
 /**
  * Contains all symbols defined in the program and consolidates the logic to a single class.
+ * Names are looked up by their id in the IdentifierTable, which the scanner
+ * gives every identifier token.
+ * All open scopes share one open addressed map from each name to its
+ * innermost symbol, so a name is found with a single probe however deeply
+ * the scopes are nested. Each declaration is written to an undo log with the
+ * symbol it hides, and closing a scope plays its part of the log backwards.
+ * The closed scope's symbols are frozen in to a ScopeTable on the procedure
+ * or function that declared them.
  * @author meltd
  *
  */
 public class SymbolTable {
 	
-	private HashMap<String, Symbol> identifierTable = new HashMap<String, Symbol>();
-	private Stack<StackEntry> symbolTableStack = new Stack<StackEntry>();
+	//the innermost symbol of each name and the depth of the scope it is declared in.
+	//keys hold id + 1, 0 for an empty slot. A name keeps its slot when its symbol is undone.
+	private int[] keys = new int[64];
+	private Symbol[] bindings = new Symbol[64];
+	private int[] depths = new int[64];
+	private int used = 0;
+	//the undo log: each declaration of the open scopes in order, with the symbol it hid.
+	private Symbol[] declared = new Symbol[64];
+	private Symbol[] hidden = new Symbol[64];
+	private int[] hiddenDepths = new int[64];
+	private int logSize = 0;
+	//where each open scope starts in the log, and the sub program it belongs to.
+	private int[] scopeStarts = new int[8];
+	private ProcedureSymbol[] owners = new ProcedureSymbol[8];
 	private int stackSize = 0;
 	private int varCount = 0;
 	private int argCount = 0;
@@ -24,7 +45,7 @@ public class SymbolTable {
 	 * Adds the pre-defined procedures write and read to the global table.
 	 */
 	public SymbolTable(){
-		this.pushTable( "Program", identifierTable);
+		this.pushTable( null);
 		this.add("write", Kinds.PROCEDURE, null, null, null);
 		this.popTable();
 		this.add("read", Kinds.PROCEDURE, null, null, null);
@@ -44,26 +65,22 @@ public class SymbolTable {
 	public boolean add( String identifier, Kinds kind, Keywords type, Integer start, Integer end){
 		boolean answer = false;
 		boolean error = false;
-		//current table is the table at the top of the stack.
-		HashMap<String, Symbol> currentTable = symbolTableStack.peek().getTable();
 		//If the identifier does not already exist in the current table.
-		if(! currentTable.containsKey(identifier)){
+		if(! isDeclaredHere( IdentifierTable.intern( identifier))){
 			switch( kind){
 				case VARIABLE:
-					//if this is not the global table, the dataIdentifier will be set to a unique point on the stack.
+					//if this is not the global table, the variable is given a unique point on the stack.
 					if( stackSize > 1){
-						String dataId = "" + (4 * varCount) + "($fp)";
-						currentTable.put(identifier, new VariableSymbol( identifier, dataId, type));
+						declare( new VariableSymbol( identifier, type, 4 * varCount));
 						varCount++;
-					}else{//if it is the global table, the dataIdentifer is the name of the variable.
-						currentTable.put(identifier, new VariableSymbol( identifier, identifier, type));
+					}else{//if it is the global table, the variable is kept under its own name.
+						declare( new VariableSymbol( identifier, type));
 					}
 					break;
 				case ARGUMENT:
-					//if this is not the global table, the dataIdentifier will be set to a unique point on the stack.
+					//if this is not the global table, the argument is given a unique point on the stack.
 					if( stackSize > 1){
-						String dataId = "" + (4 * varCount) + "($fp)";
-						currentTable.put(identifier, new ArgumentSymbol( identifier, dataId, type, argCount));
+						declare( new ArgumentSymbol( identifier, type, argCount, 4 * varCount));
 						varCount++;
 						argCount++;
 					}else{//if this is the global table, this has been invoked in error.
@@ -71,27 +88,26 @@ public class SymbolTable {
 					}
 					break;
 				case ARRAY:
-					//if this is not the global table, the dataIdentifier will be set to a unique point on the stack.
+					//if this is not the global table, the array is given a unique point on the stack.
 					if( stackSize > 1){
-						String dataId = "" + (4 * varCount) + "($fp)";
-						currentTable.put(identifier, new VariableSymbol( identifier, dataId, type));
-					}else{//if it is the global table, the dataIdentifer is the name of the array.
-						currentTable.put(identifier, new ArraySymbol( identifier, identifier, type, start, end));
+						declare( new VariableSymbol( identifier, type, 4 * varCount));
+					}else{//if it is the global table, the array is kept under its own name.
+						declare( new ArraySymbol( identifier, type, start, end));
 					}
 					break;
 				case PROCEDURE:
 					ProcedureSymbol procedure = new ProcedureSymbol( identifier);
-					currentTable.put(identifier, procedure);
+					declare( procedure);
 					//pushes the procedure's table on to the stack.
-					this.pushTable( identifier, procedure.getLocalSymbolTable());
+					this.pushTable( procedure);
 					argCount = 0;
 					varCount = 0;
 					break;
 				case FUNCTION:
 					FunctionSymbol function = new FunctionSymbol( identifier);
-					currentTable.put(identifier, function);
+					declare( function);
 					//pushes the functions's table on to the stack.
-					this.pushTable( identifier, function.getLocalSymbolTable());
+					this.pushTable( function);
 					argCount = 0;
 					varCount = 0;
 					break;
@@ -114,8 +130,7 @@ public class SymbolTable {
 	 */
 	public boolean addFunctionReturn( String identifier, Keywords type){
 		boolean answer = false;
-		HashMap<String, Symbol> currentTable = symbolTableStack.peek().getTable();
-		if(! currentTable.containsKey(identifier)){
+		if(! isDeclaredHere( IdentifierTable.intern( identifier))){
 			this.add(identifier, Kinds.VARIABLE, type, null, null);
 		}else{
 			answer = true;
@@ -125,140 +140,108 @@ public class SymbolTable {
 	}
 	
 	/**
-	 * Used to push a procedure's table on to the stack.
-	 * @param id, name of the procedure.
-	 * @param table, procedure's associated table.
+	 * Opens a new scope for a procedure or function's symbols.
+	 * @param owner, the procedure or function, or null for the global table.
 	 * @return the size of the stack after the push.
 	 */
-	public int pushTable(String id, HashMap<String, Symbol> table){	
-		StackEntry entry = new StackEntry( id, table);
-		symbolTableStack.push( entry);
+	public int pushTable( ProcedureSymbol owner){
+		if( stackSize == scopeStarts.length){
+			scopeStarts = Arrays.copyOf( scopeStarts, stackSize * 2);
+			owners = Arrays.copyOf( owners, stackSize * 2);
+		}
+		scopeStarts[stackSize] = logSize;
+		owners[stackSize] = owner;
 		this.stackSize++;
 		this.varCount = 0;
 		return this.stackSize;
 	}
 	
 	/**
-	 * Pops the top table off of the stack.
+	 * Closes the innermost scope. Its symbols are frozen in to a ScopeTable on
+	 * the procedure or function it belongs to, and the symbols they hid are
+	 * seen again.
 	 * @return the size of the stack after the pop.
 	 */
 	public int popTable(){
 		//Only pops if the stack has more than just the global table.
 		if( stackSize > 1){
-			StackEntry entry = symbolTableStack.pop();
-			String subId = entry.getIdentifier();
+			int start = scopeStarts[stackSize - 1];
+			ProcedureSymbol owner = owners[stackSize - 1];
 			//store the popped table to the appropriate procedure.
-			((ProcedureSymbol)symbolTableStack.peek().getTable().get( subId)).storeTable( entry.getTable());
+			if( logSize > start){
+				owner.storeTable( new ScopeTable( Arrays.copyOfRange( declared, start, logSize)));
+			}
+			//undoes the scope's declarations, last first.
+			for( int i = logSize - 1; i >= start; i--){
+				int slot = slot( declared[i].getId());
+				bindings[slot] = hidden[i];
+				depths[slot] = hiddenDepths[i];
+				declared[i] = null;
+				hidden[i] = null;
+			}
+			logSize = start;
+			owners[stackSize - 1] = null;
 			stackSize--;
 		}
 		return stackSize;
 	}
 	
 	/**
-	 * Checks if the variable exists anywhere in the stack and is a variable.
-	 * @param name, variable name.
+	 * Checks if the most local symbol of the id is a variable.
+	 * @param id, id of the variable name.
 	 * @return true if the variable has been declared.
 	 */
-	public boolean isVariableName( String name){
-		boolean answer = false;
-		//iterates down the stack.
-		for(int i = stackSize - 1; i >= 0; i--){
-			if(symbolTableStack.elementAt(i).getTable().containsKey(name)){
-				if( symbolTableStack.elementAt(i).getTable().get(name) instanceof VariableSymbol){
-					answer = true;
-				}
-			}
-		}
-		return answer;
+	public boolean isVariableName( int id){
+		return getSymbol( id) instanceof VariableSymbol;
 	}
 	
 	/**
-	 * Checks if the function exists anywhere in the stack and is a function.
-	 * @param name, function name.
+	 * Checks if the most local symbol of the id is a function.
+	 * @param id, id of the function name.
 	 * @return true if the function has been declared.
 	 */
-	public boolean isFunctionName( String name){
-		boolean answer = false;
-		//iterates down the stack.
-		for(int i = stackSize - 1; i >= 0; i--){
-			if(symbolTableStack.elementAt(i).getTable().containsKey(name)){
-				if( symbolTableStack.elementAt(i).getTable().get(name) instanceof FunctionSymbol){
-					answer = true;
-				}
-			}
-		}
-		return answer;
+	public boolean isFunctionName( int id){
+		return getSymbol( id) instanceof FunctionSymbol;
 	}
 	
 	/**
 	 * Checks if the id is the name of the program.
-	 * @param name, program name.
+	 * @param id, id of the program name.
 	 * @return true if it is the name of the program.
 	 */
-	public boolean isProgramName( String name){
-		boolean answer = false;
-		//checks only the global table, where program would be declared.
-		if(symbolTableStack.firstElement().getTable().containsKey(name)){
-			if( symbolTableStack.firstElement().getTable().get(name) instanceof ProgramSymbol){
-				answer = true;
-			}
-		}
-		return answer;
+	public boolean isProgramName( int id){
+		return getSymbol( id) instanceof ProgramSymbol;
 	}
 	
 	/**
-	 * Checks if the array exists anywhere in the stack and is a array.
-	 * @param name, array name.
+	 * Checks if the most local symbol of the id is an array.
+	 * @param id, id of the array name.
 	 * @return true if the array has been declared.
 	 */
-	public boolean isArrayName( String name){
-		boolean answer = false;
-		//iterates down the stack.
-		for(int i = stackSize - 1; i >= 0; i--){
-			if(symbolTableStack.elementAt(i).getTable().containsKey(name)){
-				if( symbolTableStack.elementAt(i).getTable().get(name) instanceof ArraySymbol){
-					answer = true;
-				}
-			}
-		}
-		return answer;
+	public boolean isArrayName( int id){
+		return getSymbol( id) instanceof ArraySymbol;
 	}
 	
 	/**
-	 * Checks if the procedure exists anywhere in the stack and is a procedure.
-	 * @param name, procedure name.
+	 * Checks if the most local symbol of the id is a procedure.
+	 * @param id, id of the procedure name.
 	 * @return true if the procedure has been declared.
 	 */
-	public boolean isProcedureName( String name){
-		boolean answer = false;
-		//iterates down the stack.
-		for(int i = stackSize - 1; i >= 0; i--){
-			if(symbolTableStack.elementAt(i).getTable().containsKey(name)){
-				if( symbolTableStack.elementAt(i).getTable().get(name) instanceof ProcedureSymbol){
-					answer = true;
-				}
-			}
-		}
-		return answer;
+	public boolean isProcedureName( int id){
+		return getSymbol( id) instanceof ProcedureSymbol;
 	}
 	
 	/**
 	 * Get the type of the most local symbol of this id.
-	 * @param id, name of symbol.
-	 * @return the type of symbol or null if the symbol does not exist.
+	 * @param id, id of the name of the symbol.
+	 * @return the type of symbol or null if the symbol does not exist or has no type.
 	 */
-	public Keywords getType( String id){
-		for( int i = stackSize - 1; i >= 0; i--){
-			if( symbolTableStack.elementAt(i).getTable().containsKey(id)){
-				Symbol symbol = symbolTableStack.elementAt(i).getTable().get( id);
-				if( symbol instanceof VariableSymbol){
-					return ((VariableSymbol) symbol).getType(); 
-				}else if( symbol instanceof ArraySymbol){
-					return ((ArraySymbol) symbol).getType();
-				}else if( symbol instanceof FunctionSymbol){
-					return ((FunctionSymbol) symbol).getType();
-				}
-			}
+	public Keywords getType( int id){
+		Symbol symbol = getSymbol( id);
+		if( symbol instanceof VariableSymbol){
+			return ((VariableSymbol) symbol).getType();
+		}else if( symbol instanceof FunctionSymbol){
+			return ((FunctionSymbol) symbol).getType();
 		}
 		return null;
 	}
@@ -268,21 +251,97 @@ public class SymbolTable {
 	 * @return a collect of symbols from the current table.
 	 */
 	public Collection<Symbol> getSymbols(){
-		return symbolTableStack.peek().getTable().values();
+		int start = scopeStarts[stackSize - 1];
+		return Collections.unmodifiableList( Arrays.asList( Arrays.copyOfRange( declared, start, logSize)));
+	}
+	
+	/**
+	 * Get the most local symbol of a name.
+	 * @param id, id of the name of the symbol.
+	 * @return the most local symbol of that name or null if the symbol has not been declared.
+	 */
+	public Symbol getSymbol( int id){
+		if( id < 0){
+			return null;
+		}
+		return bindings[slot( id)];
 	}
 	
 	/**
-	 * Get a symbol from the first table it's declared in on the stack.
-	 * @param id, name of symbol.
+	 * Get the most local symbol of a name.
+	 * @param name, name of symbol.
 	 * @return the most local symbol of that name or null if the symbol has not been declared.
 	 */
-	public Symbol getSymbol( String id){
-		for( int i = stackSize - 1; i >= 0; i--){
-			HashMap<String, Symbol> currentTable = symbolTableStack.elementAt(i).getTable();
-			if( currentTable.containsKey( id)){
-				return currentTable.get( id);
+	public Symbol getSymbol( String name){
+		return getSymbol( IdentifierTable.find( name));
+	}
+	
+	//true if the name is declared in the innermost open scope.
+	private boolean isDeclaredHere( int id){
+		int slot = slot( id);
+		return bindings[slot] != null && depths[slot] == stackSize;
+	}
+	
+	//declares a symbol in the innermost open scope, hiding any symbol of the same name.
+	private void declare( Symbol symbol){
+		if( logSize == declared.length){
+			declared = Arrays.copyOf( declared, logSize * 2);
+			hidden = Arrays.copyOf( hidden, logSize * 2);
+			hiddenDepths = Arrays.copyOf( hiddenDepths, logSize * 2);
+		}
+		int id = symbol.getId();
+		int slot = slot( id);
+		if( keys[slot] == 0){
+			keys[slot] = id + 1;
+			used++;
+		}
+		declared[logSize] = symbol;
+		hidden[logSize] = bindings[slot];
+		hiddenDepths[logSize] = depths[slot];
+		logSize++;
+		bindings[slot] = symbol;
+		depths[slot] = stackSize;
+		//kept at most half full, so searches always end at an empty slot.
+		if( used * 2 > keys.length){
+			rehash();
+		}
+	}
+	
+	//the slot of a name, or the empty slot it would be put in.
+	private int slot( int id){
+		int mask = keys.length - 1;
+		int slot = id & mask;
+		while( keys[slot] != 0 && keys[slot] != id + 1){
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	//moves the bound names to a map large enough for them, dropping names with no symbol.
+	private void rehash(){
+		int[] oldKeys = keys;
+		Symbol[] oldBindings = bindings;
+		int[] oldDepths = depths;
+		used = 0;
+		for( Symbol symbol : oldBindings){
+			if( symbol != null){
+				used++;
+			}
+		}
+		int size = 64;
+		while( used * 4 > size){
+			size *= 2;
+		}
+		keys = new int[size];
+		bindings = new Symbol[size];
+		depths = new int[size];
+		for( int i = 0; i < oldKeys.length; i++){
+			if( oldBindings[i] != null){
+				int slot = slot( oldKeys[i] - 1);
+				keys[slot] = oldKeys[i];
+				bindings[slot] = oldBindings[i];
+				depths[slot] = oldDepths[i];
 			}
 		}
-		return null;
 	}
 }
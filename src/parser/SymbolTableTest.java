@@ -0,0 +1,76 @@
+package parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import scanner.Keywords;
+
+/**
+ *
+ * @author Allen Burgett
+ * Checks that names resolve to their innermost declaration, that closing a
+ * scope brings back what it hid, and that closed scopes are frozen on the
+ * procedure or function that declared them.
+ */
+
+public class SymbolTableTest {
+
+	@Test
+	public void testShadowing() {
+		SymbolTable table = new SymbolTable();
+		assertTrue(table.add("x", Kinds.VARIABLE, Keywords.INTEGER, null, null));
+		Symbol global = table.getSymbol("x");
+		assertFalse(table.add("x", Kinds.VARIABLE, Keywords.REAL, null, null));
+
+		assertTrue(table.add("p", Kinds.PROCEDURE, null, null, null));
+		assertTrue(table.add("x", Kinds.VARIABLE, Keywords.REAL, null, null));
+		Symbol local = table.getSymbol("x");
+		assertEquals(Keywords.REAL, table.getType(local.getId()));
+		assertEquals(StorageClass.FRAME, ((VariableSymbol) local).getStorageClass());
+		assertEquals(0, ((VariableSymbol) local).getOffset());
+		assertEquals(StorageClass.GLOBAL, ((VariableSymbol) global).getStorageClass());
+		assertTrue(table.getSymbol("p") instanceof ProcedureSymbol);
+		assertEquals(1, table.popTable());
+
+		assertSame(global, table.getSymbol("x"));
+		assertEquals(Keywords.INTEGER, table.getType(global.getId()));
+		ScopeTable scope = ((ProcedureSymbol) table.getSymbol("p")).getLocalSymbolTable();
+		assertEquals(1, scope.size());
+		assertSame(local, scope.get(local.getId()));
+	}
+
+	@Test
+	public void testUndeclaredAfterPop() {
+		SymbolTable table = new SymbolTable();
+		table.add("f", Kinds.FUNCTION, null, null, null);
+		table.add("inner", Kinds.VARIABLE, Keywords.INTEGER, null, null);
+		table.popTable();
+		assertNull(table.getSymbol("inner"));
+		assertEquals(3, table.getSymbols().size());
+		assertNull(table.getSymbol("nothing declared by this name"));
+	}
+
+	@Test
+	public void testManySubprograms() {
+		SymbolTable table = new SymbolTable();
+		for(int i = 0; i < 100000; i++){
+			table.add("sub" + i, Kinds.PROCEDURE, null, null, null);
+			for(int j = 0; j < 20; j++){
+				table.add("local" + j, Kinds.VARIABLE, Keywords.INTEGER, null, null);
+			}
+			table.popTable();
+		}
+		assertEquals(100000 + 2, table.getSymbols().size());
+		ScopeTable scope = ((ProcedureSymbol) table.getSymbol("sub99999")).getLocalSymbolTable();
+		assertEquals(20, scope.size());
+		for(Symbol symbol : scope.values()){
+			assertSame(symbol, scope.get(symbol.getId()));
+		}
+		assertNull(table.getSymbol("local7"));
+	}
+}
@@ -4,24 +4,43 @@ import scanner.Keywords;
 
 /**
  * Represents a variable in the symbol table.
+ * Where the variable is kept is a storage class and a number, an offset in
+ * bytes from the frame pointer or a register number, which the code
+ * generator formats as it writes each instruction. Later passes may move
+ * a variable by changing them.
  * @author Allen Burgett
  *
  */
 public class VariableSymbol extends Symbol {
 	
 	protected Keywords type;
-	protected String dataIdentifier;
+	protected StorageClass storage;
+	protected int offset;
 	
 	/**
-	 * Initializes a VariableSymbol. Invokes the Symbol Constructor to set the identifier.
+	 * Initializes a global VariableSymbol, kept under its own name as a label.
+	 * Invokes the Symbol Constructor to set the identifier.
 	 * @param identifier, name of the variable as written in the source code.
-	 * @param dataIdentifier, name of the variable as used by the code generator (stack location or data location).
 	 * @param type, Integer or Real.
 	 */
-	public VariableSymbol( String identifier, String dataIdentifier, Keywords type){
+	public VariableSymbol( String identifier, Keywords type){
 		super( identifier);
 		this.type = type;
-		this.dataIdentifier = dataIdentifier;
+		this.storage = StorageClass.GLOBAL;
+		this.offset = 0;
+	}
+	
+	/**
+	 * Initializes a VariableSymbol kept in the stack frame. Invokes the Symbol Constructor to set the identifier.
+	 * @param identifier, name of the variable as written in the source code.
+	 * @param type, Integer or Real.
+	 * @param offset, bytes from the frame pointer to the variable.
+	 */
+	public VariableSymbol( String identifier, Keywords type, int offset){
+		super( identifier);
+		this.type = type;
+		this.storage = StorageClass.FRAME;
+		this.offset = offset;
 	}
 	
 	/**
@@ -34,10 +53,36 @@ public class VariableSymbol extends Symbol {
 	
 	/**
 	 * 
-	 * @return a String that the code generator can use to find the location of the variable's data.
+	 * @return where the variable is kept: a label, the stack frame or a register.
+	 */
+	public StorageClass getStorageClass(){
+		return storage;
+	}
+	
+	/**
+	 * 
+	 * @return bytes from the frame pointer for a FRAME variable, the register number for a REGISTER one.
+	 */
+	public int getOffset(){
+		return offset;
+	}
+	
+	/**
+	 * Moves the variable to another place in the stack frame.
+	 * @param offset, bytes from the frame pointer to the variable.
+	 */
+	public void setFrameOffset( int offset){
+		this.storage = StorageClass.FRAME;
+		this.offset = offset;
+	}
+	
+	/**
+	 * Keeps the variable in a saved register instead of memory.
+	 * @param register, number of the $s register.
 	 */
-	public String getDataIdentifier(){
-		return dataIdentifier;
+	public void setRegister( int register){
+		this.storage = StorageClass.REGISTER;
+		this.offset = register;
 	}
 	
 	@Override
@@ -0,0 +1,291 @@
+package scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * @author Allen Burgett
+ * Scans the bytes of a source with MyScanner's DFA, without decoding them
+ * in to characters first. Every byte is taken as one Latin-1 character, so
+ * the bytes of any ASCII or Latin-1 file can be scanned as they are. The
+ * tokens, positions, comments and warnings are the same as MyScanner gives
+ * for the decoded text.
+ * Runs of blanks and whole comments are skipped without running the DFA,
+ * eight bytes at a time by ByteSearch. Lines are not
+ * counted while scanning; a LineIndex of the text is made the first time
+ * a position is asked for.
+ * SourceReader.open() chooses this scanner when a file's bytes allow it,
+ * and MyScanner otherwise.
+ *
+ */
+public class ByteScanner implements Lexer {
+
+	//the character class of every byte, taken from MyScanner's character map.
+	private static final int[] CLASSES = buildClasses();
+	private static final int[] ACTION = MyScanner.ZZ_ACTION;
+	private static final int[] ROWMAP = MyScanner.ZZ_ROWMAP;
+	private static final int[] TRANS = MyScanner.ZZ_TRANS;
+	private static final int[] ATTRIBUTE = MyScanner.ZZ_ATTRIBUTE;
+
+	//returned in place of a token that went in to the token buffer.
+	private static final Token BUFFERED = new Token( "", null);
+
+	private final byte[] text;
+	//the text read eight bytes at a time.
+	private final ByteBuffer words;
+	private final int end;
+	//the start and end of the last match.
+	private int start = 0;
+	private int position = 0;
+	//the line starts of the text, found when a position is first asked for.
+	private LineIndex lines = null;
+	//the characters of the last word or symbol, for looking it up.
+	private char[] word = new char[64];
+	private final IdentifierCache identifiers = new IdentifierCache();
+	private TokenBuffer tokens = null;
+	private List<Diagnostic> diagnostics = null;
+	//when set, comments and warnings that are not collected are kept here, with
+	//where they were found, instead of being printed.
+	ArrayList<ParallelScanner.Printed> printed = null;
+
+	/**
+	 * Creates a scanner over bytes in memory.
+	 * @param text, the source, one character per byte.
+	 * @param length, number of bytes of the source.
+	 */
+	public ByteScanner( byte[] text, int length){
+		this( text, 0, length);
+	}
+
+	/**
+	 * Creates a scanner over part of an array of bytes. Offsets, lines and
+	 * columns are all counted from the start of the whole array.
+	 * @param text, the source, one character per byte.
+	 * @param from, index of the first byte to scan.
+	 * @param to, index after the last byte to scan.
+	 */
+	public ByteScanner( byte[] text, int from, int to){
+		this.text = text;
+		this.words = ByteSearch.words( text);
+		this.start = from;
+		this.position = from;
+		this.end = to;
+	}
+
+	/**
+	 * Creates a scanner over a buffer of bytes, such as a direct buffer. The
+	 * buffer's array is used in place if it has one, otherwise the bytes
+	 * are copied out.
+	 * @param text, the source, one character per byte, from position to limit.
+	 */
+	public ByteScanner( ByteBuffer text){
+		if( text.hasArray() && text.arrayOffset() + text.position() == 0){
+			this.text = text.array();
+			this.end = text.limit();
+		}else{
+			this.text = new byte[text.remaining()];
+			text.duplicate().get( this.text);
+			this.end = this.text.length;
+		}
+		this.words = ByteSearch.words( this.text);
+	}
+
+	private static int[] buildClasses(){
+		int[] classes = new int[256];
+		for( int i = 0; i < classes.length; i++){
+			classes[i] = MyScanner.zzCMap( i);
+		}
+		return classes;
+	}
+
+	/**
+	 * Reads the next token.
+	 * @return the token, or null at the end of the input.
+	 */
+	public Token nextToken(){
+		while( true){
+			position = ByteSearch.skipBlanks( text, words, position, end);
+			start = position;
+			if( start >= end){
+				return null;
+			}
+			//a whole comment is found by searching for braces.
+			if( text[start] == '{'){
+				int close = ByteSearch.commentEnd( text, words, start, end);
+				if( close >= 0){
+					position = close + 1;
+					if( diagnostics == null){
+						print( "Comment: " + text( start, position - start) + System.lineSeparator());
+					}
+					continue;
+				}
+			}
+
+			//finds the longest match, as MyScanner does.
+			int state = 0;
+			int accepted = -1;
+			int marked = start;
+			for( int i = start; i < end; ){
+				int next = TRANS[ROWMAP[state] + CLASSES[text[i++] & 0xff]];
+				if( next == -1){
+					break;
+				}
+				state = next;
+				int attributes = ATTRIBUTE[state];
+				if( (attributes & 1) == 1){
+					accepted = state;
+					marked = i;
+					if( (attributes & 8) == 8){
+						break;
+					}
+				}
+			}
+			if( accepted < 0){
+				throw new Error( "Error: could not match input");
+			}
+			position = marked;
+
+			int length = position - start;
+			switch( ACTION[accepted]){
+				case 1:
+					invalidSymbol( text( start, length));
+					break;
+				case 2:
+					if( diagnostics == null && text[start] == '{' && text[position - 1] == '}'){
+						print( "Comment: " + text( start, length) + System.lineSeparator());
+					}
+					break;
+				case 3:
+					if( diagnostics != null){
+						invalidSymbol( text( start, length));
+					}else{
+						print( text( start, length));
+					}
+					break;
+				case 4:
+					copyWord( length);
+					Keywords key = LUT.keyword( word, 0, length);
+					return emit( (key != null) ? key : Keywords.ID, length);
+				case 5:
+					copyWord( length);
+					return emitNumber( length);
+				case 6:
+					copyWord( length);
+					return emit( LUT.symbol( word, 0, length), length);
+				default:
+					throw new Error( "Error: could not match input");
+			}
+		}
+	}
+
+	/**
+	 * Scans all of the input in to a token buffer, instead of returning one
+	 * Token at a time. Must be called before any token has been read.
+	 * @param tokens, the buffer the tokens are added to.
+	 */
+	public void fill( TokenBuffer tokens){
+		tokens.setText( text);
+		this.tokens = tokens;
+		try{
+			while( nextToken() != null){
+			}
+		}finally{
+			this.tokens = null;
+		}
+		tokens.setEnd( end);
+	}
+
+	/**
+	 * Collects warnings in the given list instead of printing them, and
+	 * stops comments from being echoed.
+	 * @param diagnostics, the list, or null to print again.
+	 */
+	public void setDiagnostics( List<Diagnostic> diagnostics){
+		this.diagnostics = diagnostics;
+	}
+
+	public int getLineNumber(){
+		return lines().line( start);
+	}
+
+	public int getColumnNumber(){
+		return lines().column( start);
+	}
+
+	//indexes the text up to the end of the last match.
+	private LineIndex lines(){
+		if( lines == null){
+			lines = new LineIndex();
+		}
+		if( lines.indexed() < position){
+			lines.scan( text, lines.indexed(), position);
+		}
+		return lines;
+	}
+
+	//makes the Token for the last match, or adds it to the token buffer when one is being filled.
+	private Token emit( Keywords type, int length){
+		int id = (type == Keywords.ID) ? identifiers.intern( word, 0, length) : -1;
+		if( tokens != null){
+			tokens.add( type, start, length, id);
+			return BUFFERED;
+		}
+		if( type == Keywords.ID){
+			return new Token( id);
+		}
+		if( type == null){
+			return new Token( text( start, length), type);
+		}
+		return LUT.token( type);
+	}
+
+	//makes the Token for the number just matched, with its value, or adds it to the token buffer.
+	private Token emitNumber( int length){
+		if( NumberLiteral.isReal( word, 0, length)){
+			double value = NumberLiteral.realValue( word, 0, length);
+			if( tokens != null){
+				tokens.addReal( start, length, value);
+				return BUFFERED;
+			}
+			return new Token( text( start, length), value);
+		}
+		long value = NumberLiteral.integerValue( word, 0, length);
+		if( tokens != null){
+			tokens.addInteger( start, length, value);
+			return BUFFERED;
+		}
+		return new Token( text( start, length), value);
+	}
+
+	private void copyWord( int length){
+		if( length > word.length){
+			word = new char[Math.max( length, word.length * 2)];
+		}
+		for( int i = 0; i < length; i++){
+			word[i] = (char) (text[start + i] & 0xff);
+		}
+	}
+
+	private String text( int start, int length){
+		return new String( text, start, length, StandardCharsets.ISO_8859_1);
+	}
+
+	private void invalidSymbol( String symbol){
+		if( diagnostics != null){
+			diagnostics.add( new Diagnostic( "Invalid Symbol: " + symbol + " found.", getLineNumber(), getColumnNumber(), false));
+		}else{
+			print( "Invalid Symbol: " + symbol + " found." + System.lineSeparator());
+		}
+	}
+
+	private void print( String output){
+		if( printed != null){
+			printed.add( new ParallelScanner.Printed( start, output));
+		}else{
+			System.out.print( output);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * @author Allen Burgett
+ * Searches of a one byte per character text eight bytes at a time. Each
+ * search reads a long from the text and tests all eight of its bytes at
+ * once with plain arithmetic, so runs of blanks, comment bodies and lines
+ * are passed over a word at a time instead of a character at a time.
+ * The words are read little endian, so the lowest byte of a word is the
+ * first byte of the text, and the first match is found from the trailing
+ * zeros of the test.
+ *
+ */
+public class ByteSearch {
+
+	private static final long LOW = 0x7F7F7F7F7F7F7F7FL;
+	private static final long HIGH = 0x8080808080808080L;
+	private static final long SPACES = 0x2020202020202020L;
+	private static final long TABS = 0x0909090909090909L;
+	private static final long NEW_LINES = 0x0A0A0A0A0A0A0A0AL;
+	private static final long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+	private static final long OPENS = 0x7B7B7B7B7B7B7B7BL;
+	private static final long CLOSES = 0x7D7D7D7D7D7D7D7DL;
+	//0x80 less '\r' + 1, which carries in to the high bit of a byte of 14 or more.
+	private static final long BELOW_BREAKS = 0x7272727272727272L;
+
+	/**
+	 * @param text, the text.
+	 * @return a little endian view of the text to read words from.
+	 */
+	public static ByteBuffer words( byte[] text){
+		return ByteBuffer.wrap( text).order( ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Finds the end of a run of spaces, tabs, new lines and returns.
+	 * @param text, the text.
+	 * @param words, the view of the text from words().
+	 * @param from, index of the first byte to look at.
+	 * @param to, index after the last byte to look at.
+	 * @return index of the first byte that is not one of them, or to.
+	 */
+	public static int skipBlanks( byte[] text, ByteBuffer words, int from, int to){
+		int i = from;
+		//a single blank between tokens is the usual case.
+		if( i < to && !isBlank( text[i])){
+			return i;
+		}
+		while( i + 8 <= to){
+			long word = words.getLong( i);
+			long blanks = zeros( word ^ SPACES) | zeros( word ^ TABS) | zeros( word ^ NEW_LINES) | zeros( word ^ RETURNS);
+			long others = ~blanks & HIGH;
+			if( others != 0){
+				return i + (Long.numberOfTrailingZeros( others) >>> 3);
+			}
+			i += 8;
+		}
+		while( i < to && isBlank( text[i])){
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the end of the comment starting at a '{', which is the last '}'
+	 * before the next '{'.
+	 * @param text, the text.
+	 * @param words, the view of the text from words().
+	 * @param open, index of the '{'.
+	 * @param to, index after the last byte to look at.
+	 * @return index of the '}' that ends the comment, or -1 if there is none.
+	 */
+	public static int commentEnd( byte[] text, ByteBuffer words, int open, int to){
+		int close = -1;
+		int i = indexOfBrace( text, words, open + 1, to);
+		while( i < to && text[i] == '}'){
+			close = i;
+			i = indexOfBrace( text, words, i + 1, to);
+		}
+		return close;
+	}
+
+	//the first '{' or '}' at or after from, or to.
+	private static int indexOfBrace( byte[] text, ByteBuffer words, int from, int to){
+		int i = from;
+		while( i + 8 <= to){
+			long word = words.getLong( i);
+			long braces = zeros( word ^ OPENS) | zeros( word ^ CLOSES);
+			if( braces != 0){
+				return i + (Long.numberOfTrailingZeros( braces) >>> 3);
+			}
+			i += 8;
+		}
+		while( i < to && text[i] != '{' && text[i] != '}'){
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Tests the eight bytes of a word for characters that could be line
+	 * breaks: every byte up to '\r', and every byte past ASCII.
+	 * @param word, eight bytes of a text.
+	 * @return 0x80 in each byte that could be a line break, 0 if there are none.
+	 */
+	public static long breaks( long word){
+		long atLeast = (word & LOW) + BELOW_BREAKS;
+		return (~atLeast | word) & HIGH;
+	}
+
+	//0x80 in each byte of word that is zero, and nothing else. The low seven
+	//bits of a byte plus 0x7F carry in to its high bit unless they are all
+	//zero, and never carry in to the next byte.
+	private static long zeros( long word){
+		long nonZero = ((word & LOW) + LOW) | word;
+		return ~(nonZero | LOW);
+	}
+
+	private static boolean isBlank( byte b){
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+}
@@ -0,0 +1,50 @@
+package scanner;
+
+/**
+ * 
+ * @author Allen Burgett
+ * A message about the source found while compiling, with the line and
+ * column it was found at. Lines and columns are counted from 0, as the
+ * scanner counts them, or are -1 when the position is not known. Errors stop the program from compiling; warnings,
+ * such as an invalid symbol the scanner skipped, do not.
+ *
+ */
+
+public class Diagnostic
+{
+    private String message;
+    private int line;
+    private int column;
+    private boolean error;
+    
+    public Diagnostic( String message, int line, int column, boolean error)
+    {
+        this.message = message;
+        this.line = line;
+        this.column = column;
+        this.error = error;
+    }
+    
+    public String getMessage() { return this.message;}
+    
+    public int getLine() { return this.line;}
+    
+    public int getColumn() { return this.column;}
+    
+    public boolean isError() { return this.error;}
+    
+    /**
+     * Returns the diagnostic as the command line compiler prints it.
+     */
+    @Override
+    public String toString()
+    {
+        if( error && line < 0) {
+            return "Error " + message;
+        }
+        if( error) {
+            return "Error " + message + " at line " + line + " column " + column;
+        }
+        return message;
+    }
+}
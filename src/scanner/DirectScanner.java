@@ -0,0 +1,329 @@
+package scanner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * @author Allen Burgett
+ * A hand written scanner for Mini-Pascal, in place of the table driven DFA
+ * that JFlex builds for MyScanner. The first character of a token decides
+ * what it is, and the rest is read by a short loop for that kind of token,
+ * so there is no table lookup per character and no action switch per
+ * token. The tokens, positions, comments and warnings are the same as
+ * MyScanner gives for the same text.
+ * SourceReader chooses this scanner when the minipascal.scanner property
+ * is "direct".
+ *
+ */
+public class DirectScanner implements Lexer {
+
+	//what an ASCII character starts. Anything else is an invalid symbol.
+	private static final byte OTHER = 0;
+	private static final byte BLANK = 1;
+	private static final byte LETTER = 2;
+	private static final byte DIGIT = 3;
+	private static final byte SYMBOL = 4;
+	private static final byte COMMENT = 5;
+	private static final byte[] KINDS = buildKinds();
+
+	private final char[] text;
+	private final int end;
+	//the start and end of the last match.
+	private int start = 0;
+	private int position = 0;
+	//the line starts of the text, found when a position is first asked for.
+	private LineIndex lines = null;
+	private final IdentifierCache identifiers = new IdentifierCache();
+	private TokenBuffer tokens = null;
+	private List<Diagnostic> diagnostics = null;
+
+	//returned in place of a token that went in to the token buffer.
+	private static final Token BUFFERED = new Token( "", null);
+
+	/**
+	 * Creates a scanner over text that is already in memory. The text is
+	 * scanned in place if it has an array, otherwise it is copied out.
+	 * @param text, the source, from position to limit.
+	 */
+	public DirectScanner( CharBuffer text){
+		if( text.hasArray() && text.arrayOffset() + text.position() == 0){
+			this.text = text.array();
+			this.end = text.limit();
+		}else{
+			this.text = new char[text.remaining()];
+			text.duplicate().get( this.text);
+			this.end = this.text.length;
+		}
+	}
+
+	/**
+	 * Creates a scanner over a stream of text, which is read in to memory first.
+	 * @param in, the text to scan.
+	 * @throws IOException if the text cannot be read.
+	 */
+	public DirectScanner( Reader in) throws IOException{
+		char[] text = new char[16384];
+		int length = 0;
+		int count;
+		while( (count = in.read( text, length, text.length - length)) != -1){
+			length += count;
+			if( length == text.length){
+				text = Arrays.copyOf( text, text.length * 2);
+			}
+		}
+		this.text = text;
+		this.end = length;
+	}
+
+	private static byte[] buildKinds(){
+		byte[] kinds = new byte[128];
+		kinds[' '] = BLANK;
+		kinds['\t'] = BLANK;
+		kinds['\n'] = BLANK;
+		kinds['\r'] = BLANK;
+		for( char c = 'a'; c <= 'z'; c++){
+			kinds[c] = LETTER;
+			kinds[c - 'a' + 'A'] = LETTER;
+		}
+		for( char c = '0'; c <= '9'; c++){
+			kinds[c] = DIGIT;
+		}
+		for( char c : "()*+,-./:;<=>[]".toCharArray()){
+			kinds[c] = SYMBOL;
+		}
+		kinds['{'] = COMMENT;
+		return kinds;
+	}
+
+	/**
+	 * Reads the next token.
+	 * @return the token, or null at the end of the input.
+	 */
+	public Token nextToken(){
+		while( true){
+			int i = position;
+			while( i < end && text[i] < 128 && KINDS[text[i]] == BLANK){
+				i++;
+			}
+			start = i;
+			if( i >= end){
+				position = i;
+				return null;
+			}
+
+			char c = text[i];
+			switch( (c < 128) ? KINDS[c] : OTHER){
+				case LETTER:
+					position = word( i + 1);
+					Keywords key = LUT.keyword( text, start, position - start);
+					return emit( (key != null) ? key : Keywords.ID);
+				case DIGIT:
+					position = number( i);
+					return emitNumber();
+				case SYMBOL:
+					position = symbol( i);
+					return emit( LUT.symbol( text, start, position - start));
+				case COMMENT:
+					int close = commentEnd( i);
+					if( close >= 0){
+						position = close + 1;
+						if( diagnostics == null){
+							System.out.println( "Comment: " + text( start, position));
+						}
+						break;
+					}
+					//a '{' with no '}' before the next '{' is not a comment.
+					position = i + 1;
+					invalidSymbol( text( start, position));
+					break;
+				default:
+					other( c);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Scans all of the input in to a token buffer, instead of returning one
+	 * Token at a time. Must be called before any token has been read.
+	 * @param tokens, the buffer the tokens are added to.
+	 */
+	public void fill( TokenBuffer tokens){
+		tokens.setText( text);
+		this.tokens = tokens;
+		try{
+			while( nextToken() != null){
+			}
+		}finally{
+			this.tokens = null;
+		}
+		tokens.setEnd( end);
+	}
+
+	/**
+	 * Collects warnings in the given list instead of printing them, and
+	 * stops comments from being echoed.
+	 * @param diagnostics, the list, or null to print again.
+	 */
+	public void setDiagnostics( List<Diagnostic> diagnostics){
+		this.diagnostics = diagnostics;
+	}
+
+	public int getLineNumber(){
+		return lines().line( start);
+	}
+
+	public int getColumnNumber(){
+		return lines().column( start);
+	}
+
+	//indexes the text up to the end of the last match.
+	private LineIndex lines(){
+		if( lines == null){
+			lines = new LineIndex();
+		}
+		if( lines.indexed() < position){
+			lines.scan( text, lines.indexed(), position);
+		}
+		return lines;
+	}
+
+	//the end of the letters and digits of a word.
+	private int word( int i){
+		while( i < end){
+			char c = text[i];
+			if( c >= 128 || (KINDS[c] != LETTER && KINDS[c] != DIGIT)){
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	//the end of a number: digits, a fraction, an exponent, and a fraction
+	//again. Each part is only taken whole, as the DFA backs up to the last
+	//place a number could end.
+	private int number( int i){
+		i = fraction( digits( i));
+		if( i < end && text[i] == 'E'){
+			int j = i + 1;
+			if( j < end && (text[j] == '+' || text[j] == '-')){
+				j++;
+			}
+			if( j < end && isDigit( text[j])){
+				i = digits( j);
+			}
+		}
+		return fraction( i);
+	}
+
+	private int fraction( int i){
+		if( i + 1 < end && text[i] == '.' && isDigit( text[i + 1])){
+			return digits( i + 1);
+		}
+		return i;
+	}
+
+	private int digits( int i){
+		while( i < end && isDigit( text[i])){
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isDigit( char c){
+		return c >= '0' && c <= '9';
+	}
+
+	//the end of a symbol, two characters for :=, <=, >= and <>.
+	private int symbol( int i){
+		if( i + 1 < end){
+			char c = text[i];
+			char next = text[i + 1];
+			if( (next == '=' && (c == ':' || c == '<' || c == '>')) || (c == '<' && next == '>')){
+				return i + 2;
+			}
+		}
+		return i + 1;
+	}
+
+	//the last '}' before the next '{', where the longest comment from i ends, or -1.
+	private int commentEnd( int i){
+		int close = -1;
+		for( i++; i < end && text[i] != '{'; i++){
+			if( text[i] == '}'){
+				close = i;
+			}
+		}
+		return close;
+	}
+
+	//a character that starts no token. Line breaks other than a return or
+	//a new line are echoed as MyScanner does; anything else is an invalid
+	//symbol, a whole code point long.
+	private void other( char c){
+		if( c == 0x0B || c == 0x0C || c == 0x85 || c == 0x2028 || c == 0x2029){
+			position = start + 1;
+			if( diagnostics != null){
+				invalidSymbol( text( start, position));
+			}else{
+				System.out.print( text( start, position));
+			}
+			return;
+		}
+		position = start + 1;
+		if( Character.isHighSurrogate( c) && position < end && Character.isLowSurrogate( text[position])){
+			position++;
+		}
+		invalidSymbol( text( start, position));
+	}
+
+	//makes the Token for the last match, or adds it to the token buffer when one is being filled.
+	private Token emit( Keywords type){
+		int length = position - start;
+		int id = (type == Keywords.ID) ? identifiers.intern( text, start, length) : -1;
+		if( tokens != null){
+			tokens.add( type, start, length, id);
+			return BUFFERED;
+		}
+		if( type == Keywords.ID){
+			return new Token( id);
+		}
+		return LUT.token( type);
+	}
+
+	//makes the Token for the number just matched, with its value, or adds it to the token buffer.
+	private Token emitNumber(){
+		int length = position - start;
+		if( NumberLiteral.isReal( text, start, length)){
+			double value = NumberLiteral.realValue( text, start, length);
+			if( tokens != null){
+				tokens.addReal( start, length, value);
+				return BUFFERED;
+			}
+			return new Token( text( start, position), value);
+		}
+		long value = NumberLiteral.integerValue( text, start, length);
+		if( tokens != null){
+			tokens.addInteger( start, length, value);
+			return BUFFERED;
+		}
+		return new Token( text( start, position), value);
+	}
+
+	private String text( int from, int to){
+		return new String( text, from, to - from);
+	}
+
+	private void invalidSymbol( String symbol){
+		if( diagnostics != null){
+			diagnostics.add( new Diagnostic( "Invalid Symbol: " + symbol + " found.", getLineNumber(), getColumnNumber(), false));
+		}else{
+			System.out.println( "Invalid Symbol: " + symbol + " found.");
+		}
+	}
+}
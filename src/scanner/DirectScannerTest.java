@@ -0,0 +1,64 @@
+package scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Allen Burgett
+ * JUnit tests for DirectScanner, checked against the same tokens as MyScanner
+ */
+
+public class DirectScannerTest {
+	
+	Reader fileReader;
+	ArrayList<Keywords> expecteds;
+
+	@Before
+	public void setUp() throws Exception {
+		File currentDir = new File(System.getProperty("user.dir"));
+	    File newFile = new File(currentDir,"/res/simple.pas");
+		fileReader = new InputStreamReader(new FileInputStream(newFile), "UTF-8");
+		expecteds = new MyScannerTest().buildTest();
+	}
+
+	@Test
+	public void testNextToken() throws Exception {
+		DirectScanner instance = new DirectScanner(fileReader);
+		for(Keywords expected : expecteds){
+			Keywords actual = instance.nextToken().getType();
+			assertEquals(expected, actual);
+		}
+	}
+	
+	@Test
+	public void testSameAsMyScanner() throws Exception {
+		String text = "x1:=12.5E-2.3 {a}b} <> <= >= < > 1.2.3 7E+ {open\n\r\ny !";
+		ArrayList<Diagnostic> expectedWarnings = new ArrayList<Diagnostic>();
+		ArrayList<Diagnostic> actualWarnings = new ArrayList<Diagnostic>();
+		MyScanner expected = new MyScanner(CharBuffer.wrap(text.toCharArray()));
+		DirectScanner actual = new DirectScanner(CharBuffer.wrap(text.toCharArray()));
+		expected.setDiagnostics(expectedWarnings);
+		actual.setDiagnostics(actualWarnings);
+		Token token;
+		while((token = expected.nextToken()) != null){
+			Token other = actual.nextToken();
+			assertEquals(token.getType(), other.getType());
+			assertEquals(token.getLexeme(), other.getLexeme());
+			assertEquals(expected.getLineNumber(), actual.getLineNumber());
+			assertEquals(expected.getColumnNumber(), actual.getColumnNumber());
+		}
+		assertNull(actual.nextToken());
+		assertEquals(expectedWarnings.toString(), actualWarnings.toString());
+	}
+}
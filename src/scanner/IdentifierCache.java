@@ -0,0 +1,83 @@
+package scanner;
+
+/**
+ *
+ * @author Allen Burgett
+ * A scanner's own cache of the IdentifierTable ids it has already looked
+ * up, keyed by the characters of the identifier. An identifier seen before
+ * is found straight from the scanner's buffer, without making a String or
+ * touching the shared table. Only the first sight of each name makes a
+ * String. Not shared between threads; each scanner makes its own.
+ *
+ */
+public class IdentifierCache {
+
+	//id + 1 of each cached identifier, 0 for an empty slot.
+	private int[] slots = new int[64];
+	private int[] hashes = new int[64];
+	private int count = 0;
+
+	/**
+	 * Finds the id of the identifier spelled by a range of characters.
+	 * @param text, characters holding the identifier.
+	 * @param start, index of the first character of the identifier.
+	 * @param length, number of characters in the identifier.
+	 * @return the id of the identifier in the IdentifierTable.
+	 */
+	public int intern( char[] text, int start, int length){
+		int hash = 0;
+		for( int i = start; i < start + length; i++){
+			hash = 31 * hash + text[i];
+		}
+		int mask = slots.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while( slots[slot] != 0){
+			if( hashes[slot] == hash){
+				int id = slots[slot] - 1;
+				if( matches( IdentifierTable.name( id), text, start, length)){
+					return id;
+				}
+			}
+			slot = (slot + 1) & mask;
+		}
+		int id = IdentifierTable.intern( new String( text, start, length));
+		slots[slot] = id + 1;
+		hashes[slot] = hash;
+		//kept at most half full, so the search above always ends.
+		if( ++count * 2 > slots.length){
+			grow();
+		}
+		return id;
+	}
+
+	private void grow(){
+		int[] oldSlots = slots;
+		int[] oldHashes = hashes;
+		slots = new int[oldSlots.length * 2];
+		hashes = new int[oldSlots.length * 2];
+		int mask = slots.length - 1;
+		for( int i = 0; i < oldSlots.length; i++){
+			if( oldSlots[i] != 0){
+				int hash = oldHashes[i];
+				int slot = (hash ^ (hash >>> 16)) & mask;
+				while( slots[slot] != 0){
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = oldSlots[i];
+				hashes[slot] = hash;
+			}
+		}
+	}
+
+	private static boolean matches( String name, char[] text, int start, int length){
+		if( name.length() != length){
+			return false;
+		}
+		for( int i = 0; i < length; i++){
+			if( name.charAt( i) != text[start + i]){
+				return false;
+			}
+		}
+		return true;
+	}
+}
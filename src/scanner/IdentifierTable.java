@@ -0,0 +1,151 @@
+package scanner;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * @author Allen Burgett
+ * Gives every identifier a small integer id, counting up from 0 in the order
+ * identifiers are first seen. The table is shared by every scanner and
+ * parser in the JVM, so the batch compiler's workers and the compile server
+ * all agree on the ids. The spelling of each identifier is kept once, and
+ * every token and symbol with that name shares it.
+ * Each compile opens a session on the table and closes it when done. A
+ * long running process, such as the compile server or a watch, resets the
+ * table between compiles, which forgets every name once no session is open,
+ * so the table only holds the names of the programs being compiled. A reset
+ * asked for while compiles are open is done when the last of them closes,
+ * and once the table is large, new compiles wait for it, so a server that
+ * is never idle still empties the table.
+ *
+ */
+public class IdentifierTable {
+
+	/** Once this many ids are given out, a waiting reset holds back new compiles until it is done. */
+	public static final int BUSY_LIMIT = 1 << 16;
+
+	private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+	//names by id. Written under the lock and read without it.
+	private static volatile String[] names = new String[256];
+	private static int size = 0;
+	//compiles using ids now. The table is only reset when there are none.
+	private static int sessions = 0;
+	//a reset was asked for while compiles were open, and is done when they close.
+	private static boolean pending = false;
+	private static final Object lock = new Object();
+
+	/**
+	 * Finds the id of an identifier, giving it the next id if it is new.
+	 * @param name, the identifier.
+	 * @return the id of the identifier.
+	 */
+	public static int intern( String name){
+		Integer id = ids.get( name);
+		if( id != null){
+			return id;
+		}
+		synchronized( lock){
+			id = ids.get( name);
+			if( id != null){
+				return id;
+			}
+			String[] table = names;
+			if( size == table.length){
+				table = Arrays.copyOf( table, size * 2);
+			}
+			table[size] = name;
+			//the name is in the array before the id can be found in the map.
+			names = table;
+			ids.put( name, size);
+			return size++;
+		}
+	}
+
+	/**
+	 * Finds the id of an identifier without adding it.
+	 * @param name, the identifier.
+	 * @return the id of the identifier, or -1 if it has never been interned.
+	 */
+	public static int find( String name){
+		Integer id = ids.get( name);
+		return (id != null) ? id : -1;
+	}
+
+	/**
+	 * @param id, an id given out by intern().
+	 * @return the shared spelling of the identifier.
+	 */
+	public static String name( int id){
+		return names[id];
+	}
+
+	/**
+	 * Marks the start of a compile. The ids it is given stay valid until it
+	 * calls close(). If a reset is waiting and the table is large, this
+	 * waits until the open compiles close and the reset is done.
+	 */
+	public static void open(){
+		synchronized( lock){
+			while( pending && size >= BUSY_LIMIT){
+				try{
+					lock.wait();
+				}catch( InterruptedException ex){
+					//the compile goes ahead, and the reset waits for it too.
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			sessions++;
+		}
+	}
+
+	/**
+	 * Marks the end of a compile started by open(). The last compile to
+	 * close does any reset that was waiting for it.
+	 */
+	public static void close(){
+		synchronized( lock){
+			sessions--;
+			if( sessions == 0 && pending){
+				clear();
+			}
+		}
+	}
+
+	/**
+	 * Forgets every identifier and starts the ids again from 0, unless a
+	 * compile is open, whose ids would then name other identifiers. In that
+	 * case the table is emptied when the last open compile closes.
+	 * Anything still holding an id from before the reset must not use it.
+	 * @return true if the table was emptied now.
+	 */
+	public static boolean reset(){
+		synchronized( lock){
+			if( sessions > 0){
+				pending = true;
+				return false;
+			}
+			clear();
+			return true;
+		}
+	}
+
+	//empties the table and lets any compile waiting for it start. Called under the lock.
+	private static void clear(){
+		ids.clear();
+		names = new String[256];
+		size = 0;
+		pending = false;
+		lock.notifyAll();
+	}
+
+	/**
+	 * @return the number of ids given out so far. Every id is less than this.
+	 */
+	public static int size(){
+		synchronized( lock){
+			return size;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Allen Burgett
+ * JUnit tests for IdentifierTable, the ids shared by every compile in the JVM
+ */
+
+public class IdentifierTableTest {
+
+	@Before
+	public void setUp() {
+		assertTrue(IdentifierTable.reset());
+	}
+
+	//leaves an empty table, so later tests do not carry these names.
+	@After
+	public void tearDown() {
+		IdentifierTable.reset();
+	}
+
+	@Test
+	public void testInternAndName() {
+		int foo = IdentifierTable.intern("foo");
+		int bar = IdentifierTable.intern("bar");
+		assertEquals(0, foo);
+		assertEquals(1, bar);
+		assertEquals(foo, IdentifierTable.intern(new String("foo")));
+		assertEquals("foo", IdentifierTable.name(foo));
+		assertEquals("bar", IdentifierTable.name(bar));
+		assertEquals(bar, IdentifierTable.find("bar"));
+		assertEquals(-1, IdentifierTable.find("baz"));
+		assertEquals(2, IdentifierTable.size());
+	}
+
+	@Test
+	public void testConcurrentIntern() throws Exception {
+		final int names = 5000;
+		final int[][] found = new int[8][names];
+		Thread[] threads = new Thread[found.length];
+		for(int t = 0; t < threads.length; t++){
+			final int thread = t;
+			threads[t] = new Thread(){
+				public void run(){
+					//each thread interns the same names in a different order.
+					for(int i = 0; i < names; i++){
+						int k = (i * 7 + thread * 1013) % names;
+						found[thread][k] = IdentifierTable.intern("v" + k);
+					}
+				}
+			};
+		}
+		for(Thread thread : threads){
+			thread.start();
+		}
+		for(Thread thread : threads){
+			thread.join();
+		}
+		assertEquals(names, IdentifierTable.size());
+		for(int k = 0; k < names; k++){
+			int id = found[0][k];
+			for(int t = 1; t < found.length; t++){
+				assertEquals(id, found[t][k]);
+			}
+			assertEquals("v" + k, IdentifierTable.name(id));
+		}
+	}
+
+	@Test
+	public void testNoResetWhileOpen() {
+		IdentifierTable.intern("foo");
+		IdentifierTable.open();
+		try{
+			assertFalse(IdentifierTable.reset());
+			assertEquals(0, IdentifierTable.find("foo"));
+			assertEquals("foo", IdentifierTable.name(0));
+		}finally{
+			IdentifierTable.close();
+		}
+		//the reset asked for while open is done when the last compile closes.
+		assertEquals(-1, IdentifierTable.find("foo"));
+		assertEquals(0, IdentifierTable.size());
+	}
+
+	@Test
+	public void testBusyTableIsReset() throws Exception {
+		for(int i = 0; i < IdentifierTable.BUSY_LIMIT; i++){
+			IdentifierTable.intern("v" + i);
+		}
+		IdentifierTable.open();
+		assertFalse(IdentifierTable.reset());
+		final AtomicBoolean opened = new AtomicBoolean(false);
+		Thread later = new Thread(){
+			public void run(){
+				IdentifierTable.open();
+				opened.set(true);
+				IdentifierTable.close();
+			}
+		};
+		later.start();
+		//the later compile waits for the reset, which waits for the open one.
+		while(later.isAlive() && later.getState() != Thread.State.WAITING){
+			Thread.sleep(1);
+		}
+		assertFalse(opened.get());
+		assertEquals(IdentifierTable.BUSY_LIMIT, IdentifierTable.size());
+		IdentifierTable.close();
+		later.join();
+		assertTrue(opened.get());
+		assertEquals(0, IdentifierTable.size());
+	}
+}
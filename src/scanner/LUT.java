@@ -1,53 +1,188 @@
 package scanner;
 
-import java.util.HashMap;
 /**
- * 
+ *
  * @author Allen Burgett
- * Lookup Table for all valid token types
+ * Lookup Table for all valid token types. Not to be instantiated.
+ * The scanner does not look words up in the table itself. It recognizes
+ * keywords and symbols straight from its buffer with keyword() and symbol(),
+ * and hands out one shared Token for each, so no String is made for them.
  *
  */
-public class LUT extends HashMap<String, Keywords>{
-	
-	public LUT(){
-		this.put("and",Keywords.AND);
-		this.put("array",Keywords.ARRAY);
-		this.put("begin",Keywords.BEGIN);
-		this.put("div",Keywords.DIV);
-		this.put("do",Keywords.DO);
-		this.put("else",Keywords.ELSE);
-		this.put("end",Keywords.END);
-		this.put("function",Keywords.FUNCTION);
-		this.put("if",Keywords.IF);
-		this.put("integer",Keywords.INTEGER);
-		this.put("mod",Keywords.MOD);
-		this.put("not",Keywords.NOT);
-		this.put("of",Keywords.OF);
-		this.put("or",Keywords.OR);
-		this.put("procedure",Keywords.PROCEDURE);
-		this.put("program",Keywords.PROGRAM);
-		this.put("real",Keywords.REAL);
-		this.put("then",Keywords.THEN);
-		this.put("var",Keywords.VAR);
-		this.put("while",Keywords.WHILE);
-		this.put(";",Keywords.SEMI_COLON);
-		this.put(",",Keywords.COMMA);
-		this.put(".",Keywords.PERIOD);
-		this.put(":",Keywords.COLON);
-		this.put("[",Keywords.LEFT_SQUARE_BRACKET);
-		this.put("]",Keywords.RIGHT_SQUARE_BRACKET);
-		this.put("(",Keywords.LEFT_PARENTHESES);
-		this.put(")",Keywords.RIGHT_PARENTHESES);
-		this.put("+",Keywords.PLUS);
-		this.put("-",Keywords.MINUS);
-		this.put("=",Keywords.EQUALITY_OPERATOR);
-		this.put("<>",Keywords.NOT_EQUAL);
-		this.put("<",Keywords.LESS_THAN);
-		this.put("<=",Keywords.LESS_THAN_EQUAL_TO);
-		this.put(">",Keywords.GREATER_THAN);
-		this.put(">=",Keywords.GREATER_THAN_EQUAL_TO);
-		this.put("*",Keywords.TIMES);
-		this.put("/",Keywords.DIVIDE);
-		this.put(":=",Keywords.ASSIGNMENT_OPERATOR);
+public final class LUT {
+
+	//every keyword and symbol with its spelling. Tokens cannot be changed, so they can be shared.
+	static final Token[] TABLE = {
+		new Token( "and", Keywords.AND),
+		new Token( "array", Keywords.ARRAY),
+		new Token( "begin", Keywords.BEGIN),
+		new Token( "div", Keywords.DIV),
+		new Token( "do", Keywords.DO),
+		new Token( "else", Keywords.ELSE),
+		new Token( "end", Keywords.END),
+		new Token( "function", Keywords.FUNCTION),
+		new Token( "if", Keywords.IF),
+		new Token( "integer", Keywords.INTEGER),
+		new Token( "mod", Keywords.MOD),
+		new Token( "not", Keywords.NOT),
+		new Token( "of", Keywords.OF),
+		new Token( "or", Keywords.OR),
+		new Token( "procedure", Keywords.PROCEDURE),
+		new Token( "program", Keywords.PROGRAM),
+		new Token( "real", Keywords.REAL),
+		new Token( "then", Keywords.THEN),
+		new Token( "var", Keywords.VAR),
+		new Token( "while", Keywords.WHILE),
+		new Token( ";", Keywords.SEMI_COLON),
+		new Token( ",", Keywords.COMMA),
+		new Token( ".", Keywords.PERIOD),
+		new Token( ":", Keywords.COLON),
+		new Token( "[", Keywords.LEFT_SQUARE_BRACKET),
+		new Token( "]", Keywords.RIGHT_SQUARE_BRACKET),
+		new Token( "(", Keywords.LEFT_PARENTHESES),
+		new Token( ")", Keywords.RIGHT_PARENTHESES),
+		new Token( "+", Keywords.PLUS),
+		new Token( "-", Keywords.MINUS),
+		new Token( "=", Keywords.EQUALITY_OPERATOR),
+		new Token( "<>", Keywords.NOT_EQUAL),
+		new Token( "<", Keywords.LESS_THAN),
+		new Token( "<=", Keywords.LESS_THAN_EQUAL_TO),
+		new Token( ">", Keywords.GREATER_THAN),
+		new Token( ">=", Keywords.GREATER_THAN_EQUAL_TO),
+		new Token( "*", Keywords.TIMES),
+		new Token( "/", Keywords.DIVIDE),
+		new Token( ":=", Keywords.ASSIGNMENT_OPERATOR),
+	};
+
+	//the Token of each keyword and symbol, by the ordinal of its type.
+	private static final Token[] TOKENS = buildTokens();
+
+	private LUT(){
+	}
+
+	private static Token[] buildTokens(){
+		Token[] tokens = new Token[Keywords.values().length];
+		for( Token token : TABLE){
+			tokens[token.getType().ordinal()] = token;
+		}
+		return tokens;
+	}
+
+	/**
+	 * Finds the shared Token of a keyword or symbol.
+	 * @param type, a keyword or symbol in the table.
+	 * @return the Token, with the keyword or symbol as its lexeme.
+	 */
+	public static Token token( Keywords type){
+		return TOKENS[type.ordinal()];
+	}
+
+	/**
+	 * Finds the keyword spelled by a range of characters, choosing the
+	 * candidates by the length and first character of the word.
+	 * @param text, characters holding the word.
+	 * @param start, index of the first character of the word.
+	 * @param length, number of characters in the word.
+	 * @return the keyword, or null if the word is an identifier.
+	 */
+	public static Keywords keyword( char[] text, int start, int length){
+		switch( length){
+			case 2:
+				switch( text[start]){
+					case 'd': return matches( text, start, "do") ? Keywords.DO : null;
+					case 'i': return matches( text, start, "if") ? Keywords.IF : null;
+					case 'o':
+						if( matches( text, start, "of")) return Keywords.OF;
+						return matches( text, start, "or") ? Keywords.OR : null;
+					default: return null;
+				}
+			case 3:
+				switch( text[start]){
+					case 'a': return matches( text, start, "and") ? Keywords.AND : null;
+					case 'd': return matches( text, start, "div") ? Keywords.DIV : null;
+					case 'e': return matches( text, start, "end") ? Keywords.END : null;
+					case 'm': return matches( text, start, "mod") ? Keywords.MOD : null;
+					case 'n': return matches( text, start, "not") ? Keywords.NOT : null;
+					case 'v': return matches( text, start, "var") ? Keywords.VAR : null;
+					default: return null;
+				}
+			case 4:
+				switch( text[start]){
+					case 'e': return matches( text, start, "else") ? Keywords.ELSE : null;
+					case 'r': return matches( text, start, "real") ? Keywords.REAL : null;
+					case 't': return matches( text, start, "then") ? Keywords.THEN : null;
+					default: return null;
+				}
+			case 5:
+				switch( text[start]){
+					case 'a': return matches( text, start, "array") ? Keywords.ARRAY : null;
+					case 'b': return matches( text, start, "begin") ? Keywords.BEGIN : null;
+					case 'w': return matches( text, start, "while") ? Keywords.WHILE : null;
+					default: return null;
+				}
+			case 7:
+				switch( text[start]){
+					case 'i': return matches( text, start, "integer") ? Keywords.INTEGER : null;
+					case 'p': return matches( text, start, "program") ? Keywords.PROGRAM : null;
+					default: return null;
+				}
+			case 8:
+				return matches( text, start, "function") ? Keywords.FUNCTION : null;
+			case 9:
+				return matches( text, start, "procedure") ? Keywords.PROCEDURE : null;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Finds the symbol spelled by a range of characters.
+	 * @param text, characters holding the symbol.
+	 * @param start, index of the first character of the symbol.
+	 * @param length, number of characters in the symbol.
+	 * @return the symbol, or null if it is not in the table.
+	 */
+	public static Keywords symbol( char[] text, int start, int length){
+		if( length == 1){
+			switch( text[start]){
+				case ';': return Keywords.SEMI_COLON;
+				case ',': return Keywords.COMMA;
+				case '.': return Keywords.PERIOD;
+				case ':': return Keywords.COLON;
+				case '[': return Keywords.LEFT_SQUARE_BRACKET;
+				case ']': return Keywords.RIGHT_SQUARE_BRACKET;
+				case '(': return Keywords.LEFT_PARENTHESES;
+				case ')': return Keywords.RIGHT_PARENTHESES;
+				case '+': return Keywords.PLUS;
+				case '-': return Keywords.MINUS;
+				case '=': return Keywords.EQUALITY_OPERATOR;
+				case '<': return Keywords.LESS_THAN;
+				case '>': return Keywords.GREATER_THAN;
+				case '*': return Keywords.TIMES;
+				case '/': return Keywords.DIVIDE;
+				default: return null;
+			}
+		}else if( length == 2){
+			char second = text[start + 1];
+			switch( text[start]){
+				case ':': return (second == '=') ? Keywords.ASSIGNMENT_OPERATOR : null;
+				case '<':
+					if( second == '=') return Keywords.LESS_THAN_EQUAL_TO;
+					return (second == '>') ? Keywords.NOT_EQUAL : null;
+				case '>': return (second == '=') ? Keywords.GREATER_THAN_EQUAL_TO : null;
+				default: return null;
+			}
+		}
+		return null;
+	}
+
+	//compares a range of characters to a word of the same length.
+	private static boolean matches( char[] text, int start, String word){
+		for( int i = 0; i < word.length(); i++){
+			if( text[start + i] != word.charAt( i)){
+				return false;
+			}
+		}
+		return true;
 	}
 }
@@ -0,0 +1,87 @@
+package scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Allen Burgett
+ * JUnit tests for LUT, checking that keyword() and symbol() agree with the table
+ */
+
+public class LUTTest {
+
+	//every character a keyword or symbol is spelled with, and some that none is.
+	private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyz;,.:[]()+-=<>*/{}!_0";
+
+	@Test
+	public void testTableTokens() {
+		for(Token token : LUT.TABLE){
+			assertSame(token, LUT.token(token.getType()));
+		}
+	}
+
+	@Test
+	public void testTableEntriesFound() {
+		for(Token token : LUT.TABLE){
+			char[] text = ("  " + token.getLexeme()).toCharArray();
+			int length = token.getLexeme().length();
+			if(Character.isLetter(text[2])){
+				assertEquals(token.getType(), LUT.keyword(text, 2, length));
+				assertNull(LUT.symbol(text, 2, length));
+			}else{
+				assertEquals(token.getType(), LUT.symbol(text, 2, length));
+				assertNull(LUT.keyword(text, 2, length));
+			}
+		}
+	}
+
+	@Test
+	public void testNothingFoundOutsideTable() {
+		HashMap<String, Keywords> table = new HashMap<String, Keywords>();
+		for(Token token : LUT.TABLE){
+			table.put(token.getLexeme(), token.getType());
+		}
+		//every word of one or two characters.
+		for(int i = 0; i < CHARACTERS.length(); i++){
+			check(table, String.valueOf(CHARACTERS.charAt(i)));
+			for(int j = 0; j < CHARACTERS.length(); j++){
+				check(table, "" + CHARACTERS.charAt(i) + CHARACTERS.charAt(j));
+			}
+		}
+		//every keyword with one character changed, dropped or added.
+		for(Token token : LUT.TABLE){
+			String word = token.getLexeme();
+			for(int k = 0; k <= word.length(); k++){
+				for(int i = 0; i < CHARACTERS.length(); i++){
+					char c = CHARACTERS.charAt(i);
+					if(k < word.length()){
+						check(table, word.substring(0, k) + c + word.substring(k + 1));
+						check(table, word.substring(0, k) + word.substring(k + 1));
+					}
+					check(table, word.substring(0, k) + c + word.substring(k));
+				}
+			}
+		}
+	}
+
+	//checks the switches find a word exactly when it is in the table.
+	private static void check(HashMap<String, Keywords> table, String word) {
+		if(word.isEmpty()){
+			return;
+		}
+		Keywords expected = table.get(word);
+		char[] text = word.toCharArray();
+		Keywords keyword = LUT.keyword(text, 0, text.length);
+		Keywords symbol = LUT.symbol(text, 0, text.length);
+		assertEquals(expected, (keyword != null) ? keyword : symbol);
+		if(keyword != null){
+			assertNull(symbol);
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package scanner;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 
+ * @author Allen Burgett
+ * What the parser needs from a scanner. MyScanner scans characters;
+ * ByteScanner scans the bytes of an ASCII or Latin-1 source without
+ * decoding them. Both give the same tokens, positions and warnings.
+ *
+ */
+public interface Lexer
+{
+    /**
+     * Reads the next token.
+     * @return the token, or null at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    public Token nextToken() throws IOException;
+    
+    /**
+     * Scans all of the input in to a token buffer, instead of returning one
+     * Token at a time. Must be called before any token has been read.
+     * @param tokens, the buffer the tokens are added to.
+     * @throws IOException if the input cannot be read.
+     */
+    public void fill( TokenBuffer tokens) throws IOException;
+    
+    /**
+     * Collects warnings in the given list instead of printing them, and
+     * stops comments from being echoed.
+     * @param diagnostics, the list, or null to print again.
+     */
+    public void setDiagnostics( List<Diagnostic> diagnostics);
+    
+    /** The line the last token read starts on, counted from 0. */
+    public int getLineNumber();
+    
+    /** The column the last token read starts at, counted from 0. */
+    public int getColumnNumber();
+}
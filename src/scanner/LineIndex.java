@@ -0,0 +1,136 @@
+package scanner;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Allen Burgett
+ * The offsets at which the lines of a text start, so the line and column
+ * of a token are worked out from its offset only when they are asked for,
+ * such as for an error message, instead of being counted through every
+ * token as it is scanned. Line breaks are the ones MyScanner has always
+ * counted: a return, a new line, a return followed by a new line, and the
+ * vertical tab, form feed, next line, line separator and paragraph
+ * separator characters. Lines and columns are counted from 0.
+ * The text is indexed a piece at a time, in order, so a scanner reading a
+ * stream can index its buffer before the buffer is reused.
+ *
+ */
+public class LineIndex {
+
+	private int[] starts = new int[64];
+	private int count = 1;
+	//offset of the first character not yet indexed.
+	private int indexed = 0;
+	//the last character indexed was a return, so a new line next ends the same line.
+	private boolean afterReturn = false;
+
+	/**
+	 * @return the offset up to which the text has been indexed.
+	 */
+	public int indexed(){
+		return indexed;
+	}
+
+	/**
+	 * Indexes the next piece of the text.
+	 * @param text, characters holding the piece.
+	 * @param from, index in text of the character at offset indexed().
+	 * @param to, index in text after the last character of the piece.
+	 */
+	public void scan( char[] text, int from, int to){
+		int offset = indexed - from;
+		for( int i = from; i < to; i++){
+			char c = text[i];
+			if( c > '\r' && c != '\u0085' && c != '\u2028' && c != '\u2029'){
+				afterReturn = false;
+			}else{
+				lineBreak( c, offset + i);
+			}
+		}
+		indexed = offset + to;
+	}
+
+	/**
+	 * Indexes the next piece of a text of one character per byte.
+	 * @param text, bytes holding the piece.
+	 * @param from, index in text of the byte at offset indexed().
+	 * @param to, index in text after the last byte of the piece.
+	 */
+	public void scan( byte[] text, int from, int to){
+		int offset = indexed - from;
+		ByteBuffer words = ByteSearch.words( text);
+		int i = from;
+		while( i < to){
+			//passes over eight bytes at a time up to the next one that could be a line break.
+			if( i + 8 <= to){
+				long breaks = ByteSearch.breaks( words.getLong( i));
+				if( breaks == 0){
+					afterReturn = false;
+					i += 8;
+					continue;
+				}
+				int skip = Long.numberOfTrailingZeros( breaks) >>> 3;
+				if( skip > 0){
+					afterReturn = false;
+					i += skip;
+				}
+			}
+			int c = text[i] & 0xff;
+			if( c > '\r' && c != 0x85){
+				afterReturn = false;
+			}else{
+				lineBreak( c, offset + i);
+			}
+			i++;
+		}
+		indexed = offset + to;
+	}
+
+	//records the line starting after the character at offset, if it is a line break.
+	private void lineBreak( int c, int offset){
+		switch( c){
+			case '\n':
+				if( afterReturn){
+					//the line already started after the return starts after the new line instead.
+					starts[count - 1] = offset + 1;
+					afterReturn = false;
+					return;
+				}
+				break;
+			case '\r':
+			case 0x0B:
+			case 0x0C:
+			case 0x85:
+			case 0x2028:
+			case 0x2029:
+				break;
+			default:
+				afterReturn = false;
+				return;
+		}
+		if( count == starts.length){
+			starts = Arrays.copyOf( starts, count * 2);
+		}
+		starts[count++] = offset + 1;
+		afterReturn = (c == '\r');
+	}
+
+	/**
+	 * @param offset, an offset in the indexed text.
+	 * @return the line holding the character at offset.
+	 */
+	public int line( int offset){
+		int found = Arrays.binarySearch( starts, 0, count, offset);
+		return (found >= 0) ? found : -found - 2;
+	}
+
+	/**
+	 * @param offset, an offset in the indexed text.
+	 * @return the column of the character at offset.
+	 */
+	public int column( int offset){
+		return offset - starts[line( offset)];
+	}
+}
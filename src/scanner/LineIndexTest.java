@@ -0,0 +1,125 @@
+package scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Allen Burgett
+ * JUnit tests for LineIndex, checked against the line and column JFlex
+ * counted in yyline and yycolumn before the index replaced them
+ */
+
+public class LineIndexTest {
+
+	private static final String[] TEXTS = {
+		"",
+		"a",
+		"ab\ncd\n\nef",
+		"ab\rcd\r\ref\r",
+		"ab\r\ncd\r\n\r\nef\r\n",
+		"ab\n\rcd\r\r\nef",
+		"ab\u0085cd\u0085\u0085ef\u0085",
+		"ab\u2028cd\u2029ef\u2028\u2029gh",
+		"ab\u2028cd\u2029\u2028ef\u2029",
+		"ab\r\u2028cd\r\u2029\nef",
+		"ab\u000Bcd\u000Cef\r\u000B\n",
+		"x := 1;\r\n  y := x\n\r\u0085z\u2028 { c\r\n }\r",
+		"a long line that spans more than eight characters\r\nand another that does\rthen one\nlast\u2029",
+	};
+
+	@Test
+	public void testCharsSameAsYyline() {
+		for(String text : TEXTS){
+			LineIndex index = new LineIndex();
+			char[] chars = text.toCharArray();
+			index.scan(chars, 0, chars.length);
+			check(text, index);
+		}
+	}
+
+	@Test
+	public void testBytesSameAsYyline() {
+		for(String text : TEXTS){
+			//only the characters one byte can hold.
+			if(text.indexOf('\u2028') >= 0 || text.indexOf('\u2029') >= 0){
+				continue;
+			}
+			LineIndex index = new LineIndex();
+			byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+			index.scan(bytes, 0, bytes.length);
+			check(text, index);
+		}
+	}
+
+	@Test
+	public void testPiecesSameAsYyline() {
+		for(String text : TEXTS){
+			char[] chars = text.toCharArray();
+			//every place the text can be cut in two, including between a return and a new line.
+			for(int cut = 0; cut <= chars.length; cut++){
+				LineIndex index = new LineIndex();
+				char[] first = new char[cut + 3];
+				System.arraycopy(chars, 0, first, 3, cut);
+				index.scan(first, 3, first.length);
+				assertEquals(cut, index.indexed());
+				index.scan(chars, cut, chars.length);
+				assertEquals(chars.length, index.indexed());
+				check(text, index);
+			}
+		}
+	}
+
+	//compares every offset a token can start at, and the end of the text, with yyline and yycolumn.
+	private static void check(String text, LineIndex index) {
+		for(int offset = 0; offset <= text.length(); offset++){
+			//no token starts at the new line of a return and new line.
+			if(offset > 0 && offset < text.length() && text.charAt(offset) == '\n' && text.charAt(offset - 1) == '\r'){
+				continue;
+			}
+			int[] expected = yyPosition(text, offset);
+			assertEquals(text + " at " + offset, expected[0], index.line(offset));
+			assertEquals(text + " at " + offset, expected[1], index.column(offset));
+		}
+	}
+
+	//the line and column as JFlex 1.6.1 counted them through the text before offset.
+	private static int[] yyPosition(String text, int offset) {
+		int yyline = 0;
+		int yycolumn = 0;
+		boolean zzR = false;
+		for(int i = 0; i < offset; i++){
+			switch(text.charAt(i)){
+			case '\u000B':
+			case '\u000C':
+			case '\u0085':
+			case '\u2028':
+			case '\u2029':
+				yyline++;
+				yycolumn = 0;
+				zzR = false;
+				break;
+			case '\r':
+				yyline++;
+				yycolumn = 0;
+				zzR = true;
+				break;
+			case '\n':
+				if(zzR){
+					zzR = false;
+				}else{
+					yyline++;
+					yycolumn = 0;
+				}
+				break;
+			default:
+				zzR = false;
+				yycolumn++;
+			}
+		}
+		return new int[]{ yyline, yycolumn};
+	}
+}
@@ -1,5 +1,12 @@
 /* The following code was generated by JFlex 1.6.1 */
 
+/*
+ * DO NOT REGENERATE this file with JFlex alone. It is edited by hand after
+ * generating, and the edits are lost if it is simply generated again.
+ * Change MyScanner.jflex and run tools/regenerate-scanner.sh, which
+ * generates the scanner and then makes the edits again.
+ */
+
 package scanner;
 
 /**
@@ -16,7 +23,7 @@ package scanner;
  * <a href="http://www.jflex.de/">JFlex</a> 1.6.1
  * from the specification file <tt>MyScanner.jflex</tt>
  */
-public class MyScanner {
+public class MyScanner implements Lexer {
 
   /** This character denotes the end of file */
   public static final int YYEOF = -1;
@@ -38,109 +45,65 @@ public class MyScanner {
   };
 
   /** 
-   * Translates characters to character classes
+   * Translates ASCII characters to character classes. The table is kept to
+   * ASCII, as Mini-Pascal is; other characters are classed by zzCMap().
    */
-  private static final String ZZ_CMAP_PACKED = 
-    "\11\0\1\1\1\1\1\2\1\2\1\1\22\0\1\1\7\0\3\7"+
-    "\1\16\1\7\1\16\1\14\1\7\12\4\1\10\1\7\1\12\1\11"+
-    "\1\13\2\0\4\3\1\15\25\3\1\7\1\0\1\7\3\0\32\3"+
-    "\1\5\1\0\1\6\7\0\1\2\u1fa2\0\1\2\1\2\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\uffff\0\udfe6\0";
+  private static final char [] ZZ_CMAP = {
+     0,  0,  0,  0,  0,  0,  0,  0,  0,  1,  1,  2,  2,  1,  0,  0,
+     0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,
+     1,  0,  0,  0,  0,  0,  0,  0,  7,  7,  7, 14,  7, 14, 12,  7,
+     4,  4,  4,  4,  4,  4,  4,  4,  4,  4,  8,  7, 10,  9, 11,  0,
+     0,  3,  3,  3,  3, 13,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,
+     3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  7,  0,  7,  0,  0,
+     0,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,
+     3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  5,  0,  6,  0,  0
+  };
 
   /** 
-   * Translates characters to character classes
+   * Translates a character to its character class.
    */
-  private static final char [] ZZ_CMAP = zzUnpackCMap(ZZ_CMAP_PACKED);
+  static int zzCMap(int ch) {
+    if (ch < ZZ_CMAP.length) return ZZ_CMAP[ch];
+    /* the other characters that have a class */
+    if (ch == '\u0085' || ch == '\u2028' || ch == '\u2029') return 2;
+    return 0;
+  }
 
   /** 
    * Translates DFA states to action switch labels.
    */
-  private static final int [] ZZ_ACTION = zzUnpackAction();
-
-  private static final String ZZ_ACTION_PACKED_0 =
-    "\1\0\1\1\1\2\1\3\1\4\1\5\1\1\3\6"+
-    "\3\0\1\2\2\5\2\0\1\5";
-
-  private static int [] zzUnpackAction() {
-    int [] result = new int[19];
-    int offset = 0;
-    offset = zzUnpackAction(ZZ_ACTION_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackAction(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
+  static final int [] ZZ_ACTION = {
+     0,  1,  2,  3,  4,  5,  1,  6,  6,  6,  0,  0,  0,  2,  5,  5,
+     0,  0,  5
+  };
 
 
   /** 
    * Translates a state to a row index in the transition table
    */
-  private static final int [] ZZ_ROWMAP = zzUnpackRowMap();
-
-  private static final String ZZ_ROWMAP_PACKED_0 =
-    "\0\0\0\17\0\17\0\17\0\36\0\55\0\74\0\17"+
-    "\0\113\0\132\0\151\0\170\0\74\0\74\0\207\0\226"+
-    "\0\245\0\264\0\264";
-
-  private static int [] zzUnpackRowMap() {
-    int [] result = new int[19];
-    int offset = 0;
-    offset = zzUnpackRowMap(ZZ_ROWMAP_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackRowMap(String packed, int offset, int [] result) {
-    int i = 0;  /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int high = packed.charAt(i++) << 16;
-      result[j++] = high | packed.charAt(i++);
-    }
-    return j;
-  }
+  static final int [] ZZ_ROWMAP = {
+     0, 15, 15, 15, 30, 45, 60, 15, 75, 90, 105, 120, 60, 60, 135, 150,
+    165, 180, 180
+  };
 
   /** 
    * The transition table of the DFA
    */
-  private static final int [] ZZ_TRANS = zzUnpackTrans();
-
-  private static final String ZZ_TRANS_PACKED_0 =
-    "\1\2\1\3\1\4\1\5\1\6\1\7\1\2\1\10"+
-    "\1\11\1\10\1\12\1\11\1\10\1\5\1\10\22\0"+
-    "\2\5\10\0\1\5\5\0\1\6\7\0\1\13\1\14"+
-    "\1\0\5\15\1\0\1\16\10\15\11\0\1\10\16\0"+
-    "\1\10\1\0\1\10\7\0\1\17\16\0\1\20\11\0"+
-    "\1\21\4\0\1\17\7\0\1\22\1\14\5\0\1\20"+
-    "\7\0\1\22\6\0\1\20\16\0\1\23\12\0";
-
-  private static int [] zzUnpackTrans() {
-    int [] result = new int[195];
-    int offset = 0;
-    offset = zzUnpackTrans(ZZ_TRANS_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackTrans(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      value--;
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
+  static final int [] ZZ_TRANS = {
+     1,  2,  3,  4,  5,  6,  1,  7,  8,  7,  9,  8,  7,  4,  7, -1,
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+    -1,  4,  4, -1, -1, -1, -1, -1, -1, -1, -1,  4, -1, -1, -1, -1,
+    -1,  5, -1, -1, -1, -1, -1, -1, -1, 10, 11, -1, 12, 12, 12, 12,
+    12, -1, 13, 12, 12, 12, 12, 12, 12, 12, 12, -1, -1, -1, -1, -1,
+    -1, -1, -1, -1,  7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1,
+    -1, -1, -1,  7, -1,  7, -1, -1, -1, -1, -1, -1, -1, 14, -1, -1,
+    -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 15, -1, -1, -1,
+    -1, -1, -1, -1, -1, -1, 16, -1, -1, -1, -1, 14, -1, -1, -1, -1,
+    -1, -1, -1, 17, 11, -1, -1, -1, -1, -1, 15, -1, -1, -1, -1, -1,
+    -1, -1, 17, -1, -1, -1, -1, -1, -1, 15, -1, -1, -1, -1, -1, -1,
+    -1, -1, -1, -1, -1, -1, -1, -1, 18, -1, -1, -1, -1, -1, -1, -1,
+    -1, -1, -1
+  };
 
 
   /* error codes */
@@ -158,30 +121,10 @@ public class MyScanner {
   /**
    * ZZ_ATTRIBUTE[aState] contains the attributes of state <code>aState</code>
    */
-  private static final int [] ZZ_ATTRIBUTE = zzUnpackAttribute();
-
-  private static final String ZZ_ATTRIBUTE_PACKED_0 =
-    "\1\0\3\11\3\1\1\11\2\1\3\0\3\1\2\0"+
-    "\1\1";
-
-  private static int [] zzUnpackAttribute() {
-    int [] result = new int[19];
-    int offset = 0;
-    offset = zzUnpackAttribute(ZZ_ATTRIBUTE_PACKED_0, offset, result);
-    return result;
-  }
-
-  private static int zzUnpackAttribute(String packed, int offset, int [] result) {
-    int i = 0;       /* index in packed string  */
-    int j = offset;  /* index in unpacked array */
-    int l = packed.length();
-    while (i < l) {
-      int count = packed.charAt(i++);
-      int value = packed.charAt(i++);
-      do result[j++] = value; while (--count > 0);
-    }
-    return j;
-  }
+  static final int [] ZZ_ATTRIBUTE = {
+     0,  9,  9,  9,  1,  1,  1,  9,  1,  1,  0,  0,  0,  1,  1,  1,
+     0,  0,  1
+  };
 
   /** the input device */
   private java.io.Reader zzReader;
@@ -209,18 +152,9 @@ public class MyScanner {
       from input */
   private int zzEndRead;
 
-  /** number of newlines encountered up to the start of the matched text */
-  private int yyline;
-
   /** the number of characters up to the start of the matched text */
   private int yychar;
 
-  /**
-   * the number of characters from the last newline up to the start of the 
-   * matched text
-   */
-  private int yycolumn;
-
   /** 
    * zzAtBOL == true <=> the scanner is currently at the beginning of a line
    */
@@ -242,14 +176,150 @@ public class MyScanner {
 
   /* user code: */
     public String getLine(){
-        return Integer.toString(yyline);
+        return Integer.toString(getLineNumber());
     }
     
     public String getColumn(){
-        return Integer.toString(yycolumn);
+        return Integer.toString(getColumnNumber());
     }
 
-    LUT lookUpTable = new LUT();
+    public int getLineNumber(){
+        indexLines(yychar);
+        return lines.line(yychar);
+    }
+
+    public int getColumnNumber(){
+        indexLines(yychar);
+        return lines.column(yychar);
+    }
+
+    /* Indexes the line starts of the text up to offset, which must still be in the buffer. */
+    private void indexLines(int offset){
+        if(lines == null){
+            lines = new LineIndex();
+        }
+        if(lines.indexed() < offset){
+            /* the offset of the first character in the buffer */
+            int base = yychar - zzStartRead;
+            lines.scan(zzBuffer, lines.indexed() - base, offset - base);
+        }
+    }
+
+    /**
+     * Collects warnings in the given list instead of printing them, and
+     * stops comments from being echoed.
+     */
+    public void setDiagnostics(java.util.List<Diagnostic> diagnostics){
+        this.diagnostics = diagnostics;
+    }
+
+    /* Prints an invalid symbol warning, or adds it to the diagnostics if they are being collected. */
+    private void invalidSymbol(String text){
+        if(diagnostics != null){
+            diagnostics.add(new Diagnostic("Invalid Symbol: " + text + " found.", getLineNumber(), getColumnNumber(), false));
+        }else{
+            System.out.println("Invalid Symbol: " + text + " found.");
+        }
+    }
+
+    /* The standalone echo of unmatched text, which is an invalid symbol when collecting diagnostics. */
+    private void echo(String text){
+        if(diagnostics != null){
+            invalidSymbol(text);
+        }else{
+            System.out.print(text);
+        }
+    }
+
+    /**
+     * Creates a scanner over text that is already in memory, such as a file
+     * read by SourceReader. The text is scanned in place rather than being
+     * copied in to the read buffer a piece at a time.
+     */
+    public MyScanner(java.nio.CharBuffer text){
+        if(text.hasArray() && text.arrayOffset() + text.position() == 0){
+            zzBuffer = text.array();
+            zzEndRead = text.limit();
+        }else{
+            zzBuffer = new char[text.remaining()];
+            text.duplicate().get(zzBuffer);
+            zzEndRead = zzBuffer.length;
+        }
+    }
+
+    /**
+     * Scans all of the input in to a token buffer, instead of returning one
+     * Token at a time. Must be called before any token has been read. Input
+     * from a reader is read in to memory first, so every token's offset
+     * points in to a single copy of the text.
+     */
+    public void fill(TokenBuffer tokens) throws java.io.IOException{
+        if(zzReader != null){
+            char[] text = new char[ZZ_BUFFERSIZE];
+            int length = 0;
+            int count;
+            while((count = zzReader.read(text, length, text.length - length)) != -1){
+                length += count;
+                if(length == text.length){
+                    text = java.util.Arrays.copyOf(text, text.length * 2);
+                }
+            }
+            zzReader = null;
+            zzBuffer = text;
+            zzEndRead = length;
+        }
+        tokens.setText(zzBuffer);
+        this.tokens = tokens;
+        try{
+            while(nextToken() != null){
+            }
+        }finally{
+            this.tokens = null;
+        }
+        tokens.setEnd(zzStartRead);
+    }
+
+    /* Makes the Token for the matched text, or adds it to the token buffer when one is being filled. */
+    private Token emit(Keywords type){
+        int id = (type == Keywords.ID) ? identifiers.intern(zzBuffer, zzStartRead, yylength()) : -1;
+        if(tokens != null){
+            tokens.add(type, zzStartRead, yylength(), id);
+            return BUFFERED;
+        }
+        if(type == Keywords.ID){
+            return new Token(id);
+        }
+        if(type == null){
+            return new Token(yytext(), type);
+        }
+        return LUT.token(type);
+    }
+
+    /* Makes the Token for the matched number, with its value, or adds it to the token buffer. */
+    private Token emitNumber(){
+        if(NumberLiteral.isReal(zzBuffer, zzStartRead, yylength())){
+            double value = NumberLiteral.realValue(zzBuffer, zzStartRead, yylength());
+            if(tokens != null){
+                tokens.addReal(zzStartRead, yylength(), value);
+                return BUFFERED;
+            }
+            return new Token(yytext(), value);
+        }
+        long value = NumberLiteral.integerValue(zzBuffer, zzStartRead, yylength());
+        if(tokens != null){
+            tokens.addInteger(zzStartRead, yylength(), value);
+            return BUFFERED;
+        }
+        return new Token(yytext(), value);
+    }
+
+    /* Returned in place of a token that went in to the token buffer. */
+    private static final Token BUFFERED = new Token("", null);
+    private TokenBuffer tokens = null;
+    private final IdentifierCache identifiers = new IdentifierCache();
+    java.util.List<Diagnostic> diagnostics = null;
+    /* The line starts of the text, indexed only as far as a position has been asked for. */
+    private LineIndex lines = null;
 
 
   /**
@@ -262,25 +332,6 @@ public class MyScanner {
   }
 
 
-  /** 
-   * Unpacks the compressed character translation table.
-   *
-   * @param packed   the packed character translation table
-   * @return         the unpacked character translation table
-   */
-  private static char [] zzUnpackCMap(String packed) {
-    char [] map = new char[0x110000];
-    int i = 0;  /* index in packed string  */
-    int j = 0;  /* index in unpacked array */
-    while (i < 110) {
-      int  count = packed.charAt(i++);
-      char value = packed.charAt(i++);
-      do map[j++] = value; while (--count > 0);
-    }
-    return map;
-  }
-
-
   /**
    * Refills the input buffer.
    *
@@ -290,8 +341,15 @@ public class MyScanner {
    */
   private boolean zzRefill() throws java.io.IOException {
 
+    /* text given in memory is all in the buffer already */
+    if (zzReader == null) {
+      return true;
+    }
+
     /* first: make room (if you can) */
     if (zzStartRead > 0) {
+      /* index the lines of the text about to be dropped */
+      indexLines(yychar);
       zzEndRead += zzFinalHighSurrogate;
       zzFinalHighSurrogate = 0;
       System.arraycopy(zzBuffer, zzStartRead,
@@ -375,7 +433,8 @@ public class MyScanner {
     zzEndRead = zzStartRead = 0;
     zzCurrentPos = zzMarkedPos = 0;
     zzFinalHighSurrogate = 0;
-    yyline = yychar = yycolumn = 0;
+    yychar = 0;
+    lines = null;
     zzLexicalState = YYINITIAL;
     if (zzBuffer.length > ZZ_BUFFERSIZE)
       zzBuffer = new char[ZZ_BUFFERSIZE];
@@ -491,7 +550,6 @@ public class MyScanner {
     int zzMarkedPosL;
     int zzEndReadL = zzEndRead;
     char [] zzBufferL = zzBuffer;
-    char [] zzCMapL = ZZ_CMAP;
 
     int [] zzTransL = ZZ_TRANS;
     int [] zzRowMapL = ZZ_ROWMAP;
@@ -500,62 +558,8 @@ public class MyScanner {
     while (true) {
       zzMarkedPosL = zzMarkedPos;
 
-      boolean zzR = false;
-      int zzCh;
-      int zzCharCount;
-      for (zzCurrentPosL = zzStartRead  ;
-           zzCurrentPosL < zzMarkedPosL ;
-           zzCurrentPosL += zzCharCount ) {
-        zzCh = Character.codePointAt(zzBufferL, zzCurrentPosL, zzMarkedPosL);
-        zzCharCount = Character.charCount(zzCh);
-        switch (zzCh) {
-        case '\u000B':
-        case '\u000C':
-        case '\u0085':
-        case '\u2028':
-        case '\u2029':
-          yyline++;
-          yycolumn = 0;
-          zzR = false;
-          break;
-        case '\r':
-          yyline++;
-          yycolumn = 0;
-          zzR = true;
-          break;
-        case '\n':
-          if (zzR)
-            zzR = false;
-          else {
-            yyline++;
-            yycolumn = 0;
-          }
-          break;
-        default:
-          zzR = false;
-          yycolumn += zzCharCount;
-        }
-      }
+      yychar+= zzMarkedPosL-zzStartRead;
 
-      if (zzR) {
-        // peek one character ahead if it is \n (if we have counted one line too much)
-        boolean zzPeek;
-        if (zzMarkedPosL < zzEndReadL)
-          zzPeek = zzBufferL[zzMarkedPosL] == '\n';
-        else if (zzAtEOF)
-          zzPeek = false;
-        else {
-          boolean eof = zzRefill();
-          zzEndReadL = zzEndRead;
-          zzMarkedPosL = zzMarkedPos;
-          zzBufferL = zzBuffer;
-          if (eof) 
-            zzPeek = false;
-          else 
-            zzPeek = zzBufferL[zzMarkedPosL] == '\n';
-        }
-        if (zzPeek) yyline--;
-      }
       zzAction = -1;
 
       zzCurrentPosL = zzCurrentPos = zzStartRead = zzMarkedPosL;
@@ -599,7 +603,7 @@ public class MyScanner {
               zzCurrentPosL += Character.charCount(zzInput);
             }
           }
-          int zzNext = zzTransL[ zzRowMapL[zzState] + zzCMapL[zzInput] ];
+          int zzNext = zzTransL[ zzRowMapL[zzState] + (zzInput < 128 ? ZZ_CMAP[zzInput] : zzCMap(zzInput)) ];
           if (zzNext == -1) break zzForAction;
           zzState = zzNext;
 
@@ -624,42 +628,37 @@ public class MyScanner {
       else {
         switch (zzAction < 0 ? zzAction : ZZ_ACTION[zzAction]) {
           case 1: 
-            { System.out.println("Invalid Symbol: " + yytext() + " found.");
+            { invalidSymbol(yytext());
             }
           case 7: break;
           case 2: 
             { /* Ignore Whitespace */ 
-                if(( yytext().charAt(0) == '{') && (yytext().charAt( yytext().length() - 1) == '}')){
+                if(( diagnostics == null) && ( yytext().charAt(0) == '{') && (yytext().charAt( yytext().length() - 1) == '}')){
                     System.out.println("Comment: " + yytext());
                 }
             }
           case 8: break;
           case 3: 
-            { System.out.print(yytext());
+            { echo(yytext());
             }
           case 9: break;
           case 4: 
             { /** Build and output word Token */
              
-             Keywords key = lookUpTable.get(yytext());
-             if(key != null){
-                return new Token( yytext(), key);
-             }else{
-                return new Token( yytext(), Keywords.ID);
-             }
+             Keywords key = LUT.keyword(zzBuffer, zzStartRead, yylength());
+             return emit((key != null) ? key : Keywords.ID);
             }
           case 10: break;
           case 5: 
             { /** Build and output number Token */
              
-             return new Token(yytext(), Keywords.NUMBER);
+             return emitNumber();
             }
           case 11: break;
           case 6: 
             { /** Build and output syntax Token */             
              
-                Keywords key = lookUpTable.get(yytext());
-                return new Token( yytext(), key);
+                return emit(LUT.symbol(zzBuffer, zzStartRead, yylength()));
             }
           case 12: break;
           default:
@@ -0,0 +1,169 @@
+package scanner;
+
+/**
+ *
+ * @author Allen Burgett
+ * Works out the value of a number token once, as it is scanned, so the
+ * parser, the folding and the code generator carry a long or a double
+ * instead of parsing the lexeme again. A number is real if it has a
+ * fraction, and an integer otherwise, even with an exponent. Integers are
+ * 32 bits, as they are on MIPS; one too large for that is OUT_OF_RANGE.
+ * The grammar allows a fraction after the exponent, as in 1E5.3; its digits
+ * are taken as the fraction of the mantissa, so that is 1.3E5.
+ *
+ */
+public class NumberLiteral {
+
+	//powers of ten that a double holds exactly.
+	/** The value of an integer too large for 32 bits. */
+	public static final long OUT_OF_RANGE = -1;
+
+	private static final double[] POWERS = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * @param text, characters holding the number.
+	 * @param start, index of the number's first character.
+	 * @param length, number of characters in the number.
+	 * @return true if the number has a fraction.
+	 */
+	public static boolean isReal( char[] text, int start, int length){
+		for( int i = start; i < start + length; i++){
+			if( text[i] == '.'){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The value of an integer, with any exponent applied. A negative
+	 * exponent drops digits, as integer division would.
+	 * @param text, characters holding the number.
+	 * @param start, index of the number's first character.
+	 * @param length, number of characters in the number.
+	 * @return the value, or OUT_OF_RANGE if it is more than Integer.MAX_VALUE.
+	 */
+	public static long integerValue( char[] text, int start, int length){
+		int end = start + length;
+		long value = 0;
+		//digits past what a long holds, each a power of ten the value is short by.
+		int dropped = 0;
+		int i = start;
+		while( i < end && isDigit( text[i])){
+			if( value <= (Long.MAX_VALUE - 9) / 10){
+				value = value * 10 + (text[i] - '0');
+			}else{
+				dropped++;
+			}
+			i++;
+		}
+		int exponent = exponent( text, i, end) + dropped;
+		//stops as soon as the value is out of range or zero, so a large exponent takes no time.
+		for( ; exponent > 0 && value != 0 && value <= Integer.MAX_VALUE; exponent--){
+			value *= 10;
+		}
+		for( ; exponent < 0 && value != 0; exponent++){
+			value /= 10;
+		}
+		return (value > Integer.MAX_VALUE) ? OUT_OF_RANGE : value;
+	}
+
+	/**
+	 * The value of a real, rounded to the nearest double.
+	 * @param text, characters holding the number.
+	 * @param start, index of the number's first character.
+	 * @param length, number of characters in the number.
+	 * @return the value.
+	 */
+	public static double realValue( char[] text, int start, int length){
+		int end = start + length;
+		long mantissa = 0;
+		int digits = 0;
+		//the power of ten the mantissa is scaled by.
+		int scale = 0;
+		boolean fraction = false;
+		for( int i = start; i < end; i++){
+			char c = text[i];
+			if( isDigit( c)){
+				//leading zeros take no room in the mantissa.
+				if( mantissa != 0 || c != '0'){
+					digits++;
+				}
+				if( digits <= 18){
+					mantissa = mantissa * 10 + (c - '0');
+					if( fraction){
+						scale--;
+					}
+				}else if( !fraction){
+					scale++;
+				}
+			}else if( c == '.'){
+				fraction = true;
+			}else if( c == 'E'){
+				scale += exponent( text, i, end);
+				//skips the exponent's digits, to any fraction after them.
+				i++;
+				while( i < end && text[i] != '.'){
+					i++;
+				}
+				i--;
+			}
+		}
+		//the mantissa and the power of ten are both exact, so one operation rounds correctly.
+		if( mantissa < (1L << 53) && scale >= -22 && scale <= 22){
+			return (scale < 0) ? mantissa / POWERS[-scale] : mantissa * POWERS[scale];
+		}
+		if( digits <= 18){
+			return Double.parseDouble( mantissa + "E" + scale);
+		}
+		//too many digits to hold, so every one of them is handed to the library.
+		StringBuilder all = new StringBuilder( length);
+		int exponent = 0;
+		fraction = false;
+		for( int i = start; i < end; i++){
+			char c = text[i];
+			if( isDigit( c)){
+				all.append( c);
+				if( fraction){
+					exponent--;
+				}
+			}else if( c == '.'){
+				fraction = true;
+			}else if( c == 'E'){
+				exponent += exponent( text, i, end);
+				i++;
+				while( i < end && text[i] != '.'){
+					i++;
+				}
+				i--;
+			}
+		}
+		return Double.parseDouble( all.append( 'E').append( exponent).toString());
+	}
+
+	//the value of the exponent starting at from, 0 if there is none.
+	private static int exponent( char[] text, int from, int end){
+		if( from >= end || text[from] != 'E'){
+			return 0;
+		}
+		int i = from + 1;
+		boolean negative = false;
+		if( text[i] == '+' || text[i] == '-'){
+			negative = (text[i] == '-');
+			i++;
+		}
+		int exponent = 0;
+		while( i < end && isDigit( text[i])){
+			//large enough to make any value zero or infinite.
+			exponent = Math.min( exponent * 10 + (text[i++] - '0'), 9999);
+		}
+		return negative ? -exponent : exponent;
+	}
+
+	private static boolean isDigit( char c){
+		return c >= '0' && c <= '9';
+	}
+}
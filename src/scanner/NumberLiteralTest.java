@@ -0,0 +1,60 @@
+package scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Allen Burgett
+ * Checks that number lexemes decode to the values the program means, and
+ * that an integer too large for the 32 bits of a MIPS word is out of range.
+ */
+
+public class NumberLiteralTest {
+
+	@Test
+	public void testIntegerLimits() {
+		assertEquals(0, integer("0"));
+		assertEquals(Integer.MAX_VALUE, integer("2147483647"));
+		assertEquals(NumberLiteral.OUT_OF_RANGE, integer("2147483648"));
+		assertEquals(Integer.MAX_VALUE, integer("0000000002147483647"));
+		assertEquals(NumberLiteral.OUT_OF_RANGE, integer("99999999999999999999999999"));
+	}
+
+	@Test
+	public void testIntegerExponents() {
+		assertEquals(100000, integer("1E5"));
+		assertEquals(2000000000, integer("2E9"));
+		assertEquals(NumberLiteral.OUT_OF_RANGE, integer("3E9"));
+		assertEquals(NumberLiteral.OUT_OF_RANGE, integer("1E30"));
+		assertEquals(NumberLiteral.OUT_OF_RANGE, integer("1E9999"));
+		assertEquals(0, integer("0E9999"));
+		assertEquals(12, integer("1234E-2"));
+		assertEquals(0, integer("5E-9999"));
+		//digits past what a long holds are dropped again by the exponent.
+		assertEquals(1234, integer("123456789012345678901234E-20"));
+		assertEquals(Integer.MAX_VALUE, integer("214748364700000000000000000000E-20"));
+	}
+
+	@Test
+	public void testReals() {
+		assertTrue(NumberLiteral.isReal("1.5".toCharArray(), 0, 3));
+		assertFalse(NumberLiteral.isReal("15E2".toCharArray(), 0, 4));
+		assertEquals(1.5, real("1.5"), 0);
+		assertEquals(2.5e-3, real("2.5E-3"), 0);
+		assertEquals(1.3e5, real("1E5.3"), 0);
+		assertEquals(1e30, real("1.0E30"), 0);
+		assertEquals(0.1, real("0.1000000000000000000000000001"), 0);
+	}
+
+	private static long integer(String text) {
+		return NumberLiteral.integerValue(text.toCharArray(), 0, text.length());
+	}
+
+	private static double real(String text) {
+		return NumberLiteral.realValue(text.toCharArray(), 0, text.length());
+	}
+}
@@ -0,0 +1,248 @@
+package scanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *
+ * @author Allen Burgett
+ * Scans a very large ASCII or Latin-1 source on many threads. The source is
+ * cut in to chunks just after line breaks that are outside comments, each
+ * chunk is scanned by its own ByteScanner on the common fork/join pool, and
+ * the chunks' tokens are joined in to one TokenBuffer. Tokens are kept by
+ * their offset in the whole source, so nothing needs moving when they are
+ * joined. The parser reads the joined tokens as it would from any other
+ * scanner.
+ * A comment runs from a '{' to the last '}' before the next '{', so a line
+ * break is inside one only if a '{' comes before it with no other '{'
+ * between, and a '}' comes after it before the next '{'.
+ *
+ */
+public class ParallelScanner implements Lexer {
+
+	/** Sources are not cut in to chunks smaller than this many bytes. */
+	public static final int MIN_CHUNK = 1 << 20;
+
+	private final byte[] text;
+	private final int end;
+	private final int chunks;
+	private List<Diagnostic> diagnostics = null;
+	//the tokens read by nextToken(), scanned on the first call.
+	private TokenBuffer tokens = null;
+	private int next = 0;
+	//the number of the token last read, its line and column are found only when asked for.
+	private int current = -1;
+	//comments and warnings not yet printed, each printed just before the token after it is read.
+	private List<Printed> pending = null;
+	private int printedNext = 0;
+
+	/**
+	 * Creates a scanner that cuts the source in to about four chunks for
+	 * each thread of the common pool, none smaller than MIN_CHUNK.
+	 * @param text, the source, one character per byte.
+	 * @param length, number of bytes of the source.
+	 */
+	public ParallelScanner( byte[] text, int length){
+		this( text, length, (int) Math.min( ForkJoinPool.getCommonPoolParallelism() * 4L, length / MIN_CHUNK));
+	}
+
+	/**
+	 * Creates a scanner that cuts the source in to at most the given number of chunks.
+	 * @param text, the source, one character per byte.
+	 * @param length, number of bytes of the source.
+	 * @param chunks, the most chunks to cut the source in to.
+	 */
+	public ParallelScanner( byte[] text, int length, int chunks){
+		this.text = text;
+		this.end = length;
+		this.chunks = Math.max( 1, chunks);
+	}
+
+	/**
+	 * Reads the next token. The whole source is scanned on the first call,
+	 * but comments and warnings are printed as the tokens after them are read.
+	 * @return the token, or null at the end of the input.
+	 */
+	public Token nextToken(){
+		if( tokens == null){
+			tokens = new TokenBuffer();
+			pending = scan( tokens);
+		}
+		current = next;
+		//prints what was found before this token, as a scanner reading one token at a time does.
+		int before = (next < tokens.size()) ? tokens.getStart( next) : Integer.MAX_VALUE;
+		while( printedNext < pending.size() && pending.get( printedNext).offset < before){
+			System.out.print( pending.get( printedNext++).text);
+		}
+		if( next >= tokens.size()){
+			return null;
+		}
+		Keywords type = tokens.getType( next);
+		Token token;
+		if( type == Keywords.ID){
+			token = new Token( tokens.getId( next));
+		}else if( type == Keywords.NUMBER && tokens.isReal( next)){
+			token = new Token( tokens.getLexeme( next), tokens.getRealValue( next));
+		}else if( type == Keywords.NUMBER){
+			token = new Token( tokens.getLexeme( next), tokens.getIntegerValue( next));
+		}else if( type == null){
+			token = new Token( tokens.getLexeme( next), type);
+		}else{
+			token = LUT.token( type);
+		}
+		next++;
+		return token;
+	}
+
+	/**
+	 * Scans all of the input in to a token buffer. Comments and warnings
+	 * are printed, or added to the diagnostics, in the order they appear in
+	 * the source once every chunk is scanned.
+	 * @param tokens, the buffer the tokens are added to.
+	 */
+	public void fill( TokenBuffer tokens){
+		for( Printed output : scan( tokens)){
+			System.out.print( output.text);
+		}
+	}
+
+	//scans the chunks and joins their tokens and diagnostics. What would be
+	//printed is returned in order instead, so the caller can choose when.
+	private List<Printed> scan( TokenBuffer tokens){
+		final int[] cuts = cuts();
+		final int parts = cuts.length - 1;
+		ArrayList<Printed> printed = new ArrayList<Printed>();
+		if( parts == 1){
+			ByteScanner scanner = new ByteScanner( text, 0, end);
+			scanner.setDiagnostics( diagnostics);
+			scanner.printed = printed;
+			scanner.fill( tokens);
+			return printed;
+		}
+
+		final TokenBuffer[] buffers = new TokenBuffer[parts];
+		final ByteScanner[] scanners = new ByteScanner[parts];
+		final ArrayList<List<Diagnostic>> warnings = new ArrayList<List<Diagnostic>>();
+		ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for( int i = 0; i < parts; i++){
+			final int part = i;
+			scanners[i] = new ByteScanner( text, cuts[i], cuts[i + 1]);
+			//each chunk keeps what it finds until all are joined in order.
+			if( diagnostics != null){
+				warnings.add( new ArrayList<Diagnostic>());
+				scanners[i].setDiagnostics( warnings.get( i));
+			}else{
+				scanners[i].printed = new ArrayList<Printed>();
+			}
+			tasks.add( new RecursiveAction(){
+				protected void compute(){
+					//a chunk's tokens are about a fifth of its bytes.
+					buffers[part] = new TokenBuffer( (cuts[part + 1] - cuts[part]) / 5);
+					scanners[part].fill( buffers[part]);
+				}
+			});
+		}
+		ForkJoinTask.invokeAll( tasks);
+
+		tokens.setText( text);
+		for( int i = 0; i < parts; i++){
+			tokens.append( buffers[i]);
+			if( diagnostics != null){
+				diagnostics.addAll( warnings.get( i));
+			}else{
+				printed.addAll( scanners[i].printed);
+			}
+		}
+		tokens.setEnd( end);
+		return printed;
+	}
+
+	/**
+	 * Collects warnings in the given list instead of printing them, and
+	 * stops comments from being echoed.
+	 * @param diagnostics, the list, or null to print again.
+	 */
+	public void setDiagnostics( List<Diagnostic> diagnostics){
+		this.diagnostics = diagnostics;
+	}
+
+	public int getLineNumber(){
+		return (current < 0) ? 0 : tokens.getLine( current);
+	}
+
+	public int getColumnNumber(){
+		return (current < 0) ? 0 : tokens.getColumn( current);
+	}
+
+	//the start of every chunk, followed by the end of the source.
+	private int[] cuts(){
+		int[] cuts = new int[chunks + 1];
+		int count = 1;
+		for( int k = 1; k < chunks; k++){
+			int previous = cuts[count - 1];
+			int cut = safeCut( Math.max( previous, (int) ((long) end * k / chunks)), previous);
+			if( cut >= end){
+				break;
+			}
+			if( cut > previous){
+				cuts[count++] = cut;
+			}
+		}
+		cuts[count++] = end;
+		return Arrays.copyOf( cuts, count);
+	}
+
+	//finds the first place at or after from that follows a line break outside
+	//any comment. previous is such a place before from, or the start.
+	private int safeCut( int from, int previous){
+		int lineBreak = indexOf( '\n', from);
+		while( lineBreak < end){
+			//the nearest '{' before the line break. One before previous cannot reach past it.
+			int open = lineBreak - 1;
+			while( open >= previous && text[open] != '{'){
+				open--;
+			}
+			if( open < previous){
+				return lineBreak + 1;
+			}
+			//the comment from that '{' ends at the last '}' before the next '{'.
+			int close = -1;
+			int i = lineBreak + 1;
+			while( i < end && text[i] != '{'){
+				if( text[i] == '}'){
+					close = i;
+				}
+				i++;
+			}
+			if( close < 0){
+				return lineBreak + 1;
+			}
+			previous = close + 1;
+			lineBreak = indexOf( '\n', previous);
+		}
+		return end;
+	}
+
+	private int indexOf( char c, int from){
+		int i = from;
+		while( i < end && text[i] != c){
+			i++;
+		}
+		return i;
+	}
+
+	//a comment echo or warning that is to be printed, and the offset it was found at.
+	static final class Printed {
+		final int offset;
+		final String text;
+
+		Printed( int offset, String text){
+			this.offset = offset;
+			this.text = text;
+		}
+	}
+}
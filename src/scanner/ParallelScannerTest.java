@@ -0,0 +1,125 @@
+package scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Allen Burgett
+ * JUnit tests for ParallelScanner, cutting small sources in to many chunks
+ * and checking them against ByteScanner over the whole source
+ */
+
+public class ParallelScannerTest {
+
+	private static final String[] SOURCES = {
+		lines("x := x + 12 * 1.5e3; { a comment\n that runs over lines }\n", 40),
+		lines("y1 := 7 <> 3 ! ;\r\n{ one\r\n two\r\n three } z := 2.25E-1 * y1\r\n", 40),
+		lines("a[1] := b { short } + c;\n{ spans { the cut\n } } ; }\nd := 1.2.3 7E+ @\n", 40),
+		lines("begin\r\n  e := f div 4 mod 2\r\nend;\n", 30) + "{ never closed\r\ng := 5;\r\nh := 6\r\n",
+		lines("i := 1\n", 20) + "{ open\n" + lines("j := 2\n", 20) + "} k := 3 { again\r\n" + lines("l := 4\n", 20),
+	};
+
+	@Test
+	public void testSameTokensAsByteScanner() throws Exception {
+		for(String source : SOURCES){
+			byte[] text = source.getBytes(StandardCharsets.ISO_8859_1);
+			TokenBuffer expected = new TokenBuffer();
+			ArrayList<Diagnostic> expectedWarnings = new ArrayList<Diagnostic>();
+			ByteScanner whole = new ByteScanner(text, 0, text.length);
+			whole.setDiagnostics(expectedWarnings);
+			whole.fill(expected);
+			for(int chunks = 1; chunks <= 8; chunks++){
+				TokenBuffer actual = new TokenBuffer();
+				ArrayList<Diagnostic> actualWarnings = new ArrayList<Diagnostic>();
+				ParallelScanner instance = new ParallelScanner(text, text.length, chunks);
+				instance.setDiagnostics(actualWarnings);
+				instance.fill(actual);
+				assertEquals(expected.size(), actual.size());
+				for(int i = 0; i < expected.size(); i++){
+					assertEquals(expected.getType(i), actual.getType(i));
+					assertEquals(expected.getId(i), actual.getId(i));
+					assertEquals(expected.getLexeme(i), actual.getLexeme(i));
+					assertEquals(expected.getStart(i), actual.getStart(i));
+					assertEquals(expected.getLine(i), actual.getLine(i));
+					assertEquals(expected.getColumn(i), actual.getColumn(i));
+					if(expected.getType(i) == Keywords.NUMBER){
+						assertEquals(expected.isReal(i), actual.isReal(i));
+						assertEquals(expected.getIntegerValue(i), actual.getIntegerValue(i));
+						assertEquals(expected.getRealValue(i), actual.getRealValue(i), 0.0);
+					}
+				}
+				assertEquals(expectedWarnings.size(), actualWarnings.size());
+				for(int i = 0; i < expectedWarnings.size(); i++){
+					assertEquals(expectedWarnings.get(i).getMessage(), actualWarnings.get(i).getMessage());
+					assertEquals(expectedWarnings.get(i).getLine(), actualWarnings.get(i).getLine());
+					assertEquals(expectedWarnings.get(i).getColumn(), actualWarnings.get(i).getColumn());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNextTokenSameAsByteScanner() throws Exception {
+		for(String source : SOURCES){
+			byte[] text = source.getBytes(StandardCharsets.ISO_8859_1);
+			for(int chunks = 2; chunks <= 8; chunks += 3){
+				ByteScanner expected = new ByteScanner(text, 0, text.length);
+				ParallelScanner actual = new ParallelScanner(text, text.length, chunks);
+				expected.setDiagnostics(new ArrayList<Diagnostic>());
+				actual.setDiagnostics(new ArrayList<Diagnostic>());
+				Token token;
+				while((token = expected.nextToken()) != null){
+					Token other = actual.nextToken();
+					assertEquals(token.getType(), other.getType());
+					assertEquals(token.getLexeme(), other.getLexeme());
+					assertEquals(expected.getLineNumber(), actual.getLineNumber());
+					assertEquals(expected.getColumnNumber(), actual.getColumnNumber());
+				}
+				assertNull(actual.nextToken());
+			}
+		}
+	}
+
+	@Test
+	public void testPrintsInTurnWithTokens() throws Exception {
+		for(String source : SOURCES){
+			byte[] text = source.getBytes(StandardCharsets.ISO_8859_1);
+			String expected = printed(new ByteScanner(text, 0, text.length));
+			for(int chunks = 1; chunks <= 8; chunks++){
+				assertEquals(expected, printed(new ParallelScanner(text, text.length, chunks)));
+			}
+		}
+	}
+
+	//what is printed while reading every token, with each token's lexeme printed as it is read.
+	private static String printed(Lexer scanner) throws Exception {
+		PrintStream out = System.out;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(printed, true, "ISO-8859-1"));
+		try{
+			Token token;
+			while((token = scanner.nextToken()) != null){
+				System.out.println("token " + token.getLexeme());
+			}
+		}finally{
+			System.setOut(out);
+		}
+		return printed.toString("ISO-8859-1");
+	}
+
+	private static String lines(String text, int times){
+		StringBuilder lines = new StringBuilder();
+		for(int i = 0; i < times; i++){
+			lines.append(text);
+		}
+		return lines.toString();
+	}
+}
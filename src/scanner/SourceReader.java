@@ -0,0 +1,135 @@
+package scanner;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *
+ * @author Allen Burgett
+ * Reads a whole source file in one read, for the scanner to scan in one
+ * pass. The bytes are read in to an array of exactly the file's size, so
+ * no read buffer is filled in chunks and the scanner never has to grow
+ * its buffer. The scanners read that array in place.
+ * Files are decoded with the platform default charset, as they are when
+ * read through an InputStreamReader. Pure ASCII files, which every
+ * Mini-Pascal program is, are not decoded at all, but scanned as bytes.
+ *
+ */
+public class SourceReader {
+
+	/**
+	 * The system property that chooses the scanner. Set to "direct" to
+	 * scan every source with the hand written DirectScanner, or leave it
+	 * unset, or "table", for MyScanner's table driven DFA and the
+	 * ByteScanner and ParallelScanner that run it over bytes.
+	 */
+	public static final String SCANNER_PROPERTY = "minipascal.scanner";
+
+	/**
+	 * Opens a scanner over a source file, as open( byte[]) does for its bytes.
+	 * @param file, the file to scan.
+	 * @return the scanner.
+	 * @throws FileNotFoundException if there is no such file, or it cannot be opened.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static Lexer open( File file) throws IOException{
+		return open( readBytes( file));
+	}
+
+	/**
+	 * Opens a scanner over the bytes of a source that are already in memory.
+	 * When every byte is one character in the platform charset, which is so
+	 * for ASCII text and for any text in Latin-1, the bytes are scanned by a
+	 * ByteScanner, or by a ParallelScanner if there are enough of them to
+	 * cut in to chunks. Otherwise they are decoded for a MyScanner. If the
+	 * direct scanner is chosen, they are always decoded for it.
+	 * @param text, the bytes of the source, which the scanner keeps.
+	 * @return the scanner.
+	 */
+	public static Lexer open( byte[] text){
+		if( isDirect()){
+			return new DirectScanner( decode( text));
+		}
+		Charset charset = Charset.defaultCharset();
+		boolean latin1 = charset.equals( StandardCharsets.ISO_8859_1);
+		boolean asciiBased = latin1 || charset.equals( StandardCharsets.UTF_8) || charset.equals( StandardCharsets.US_ASCII);
+		if( asciiBased && (latin1 || isAscii( text))){
+			if( text.length >= 2 * ParallelScanner.MIN_CHUNK && ForkJoinPool.getCommonPoolParallelism() > 1){
+				return new ParallelScanner( text, text.length);
+			}
+			return new ByteScanner( text, text.length);
+		}
+		return new MyScanner( decode( text));
+	}
+
+	/**
+	 * Opens a scanner over text in memory, MyScanner or the DirectScanner
+	 * as SCANNER_PROPERTY chooses.
+	 * @param text, the text to scan, from position to limit.
+	 * @return the scanner.
+	 */
+	public static Lexer open( CharBuffer text){
+		return isDirect() ? new DirectScanner( text) : new MyScanner( text);
+	}
+
+	private static boolean isDirect(){
+		return "direct".equals( System.getProperty( SCANNER_PROPERTY));
+	}
+
+	//ors every byte together, as a byte past ASCII is negative.
+	private static boolean isAscii( byte[] text){
+		int bits = 0;
+		for( int i = 0; i < text.length; i++){
+			bits |= text[i];
+		}
+		return bits >= 0;
+	}
+
+	/**
+	 * Reads a source file.
+	 * @param file, the file to read.
+	 * @return the text of the file, from position 0 to its limit.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static CharBuffer read( File file) throws IOException{
+		return decode( readBytes( file));
+	}
+
+	/**
+	 * Reads the bytes of a source file.
+	 * @param file, the file to read.
+	 * @return every byte of the file.
+	 * @throws FileNotFoundException if there is no such file, or it cannot be opened.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static byte[] readBytes( File file) throws IOException{
+		if( file.isDirectory()){
+			throw new FileNotFoundException( file + " (Is a directory)");
+		}
+		//an array holds a little less than Integer.MAX_VALUE bytes.
+		if( file.length() > Integer.MAX_VALUE - 8){
+			throw new IOException( file + " is too large to scan.");
+		}
+		try{
+			return Files.readAllBytes( file.toPath());
+		}catch( NoSuchFileException ex){
+			throw new FileNotFoundException( file + " (No such file or directory)");
+		}catch( AccessDeniedException ex){
+			throw new FileNotFoundException( file + " (Permission denied)");
+		}
+	}
+
+	//malformed bytes are replaced, as an InputStreamReader would.
+	private static CharBuffer decode( byte[] text){
+		return Charset.defaultCharset().decode( ByteBuffer.wrap( text));
+	}
+}
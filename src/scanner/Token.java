@@ -12,6 +12,10 @@ public class Token
 {
     private String contents;
     private Keywords type;
+    private int id = -1;
+    //the value of a number, the bits of a double if it is real.
+    private long value = 0;
+    private boolean real = false;
     
     public Token( String input, Keywords type)
     {
@@ -19,10 +23,55 @@ public class Token
         this.type = type;
     };
     
+    /**
+     * Makes an identifier Token.
+     * @param id, the identifier's id in the IdentifierTable.
+     */
+    public Token( int id)
+    {
+        this( IdentifierTable.name( id), Keywords.ID);
+        this.id = id;
+    }
+    
+    /**
+     * Makes an integer number Token.
+     * @param input, the number as it was written.
+     * @param value, the value of the number.
+     */
+    public Token( String input, long value)
+    {
+        this( input, Keywords.NUMBER);
+        this.value = value;
+    }
+    
+    /**
+     * Makes a real number Token.
+     * @param input, the number as it was written.
+     * @param value, the value of the number.
+     */
+    public Token( String input, double value)
+    {
+        this( input, Keywords.NUMBER);
+        this.value = Double.doubleToRawLongBits( value);
+        this.real = true;
+    }
+    
     public String getLexeme() { return this.contents;}
     
     public Keywords getType() { return this.type;}
     
+    /** The identifier's id in the IdentifierTable, or -1 if this is not an identifier. */
+    public int getId() { return this.id;}
+    
+    /** True if this is a number with a fraction. */
+    public boolean isReal() { return this.real;}
+    
+    /** The value of an integer number Token. */
+    public long getIntegerValue() { return this.value;}
+    
+    /** The value of a real number Token. */
+    public double getRealValue() { return Double.longBitsToDouble( this.value);}
+    
     @Override
     public String toString() { return "Token: " + this.contents;}
 }
@@ -0,0 +1,281 @@
+package scanner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ *
+ * @author Allen Burgett
+ * Every token of a program, kept as parallel arrays of ints rather than as
+ * Token objects. Token number i has its type and its start and length in
+ * the scanned text, each at index i. Lines and columns are only worked out,
+ * from a LineIndex of the text, when one is asked for.
+ * Identifiers also have their IdentifierTable id, and their lexeme is the
+ * table's shared String. Numbers have their value, worked out as they were
+ * scanned, kept apart from the tokens in arrays of their own, so other
+ * tokens pay nothing for it; a number's entry in the ids is its place in
+ * those arrays. Other lexemes are only made in to Strings when asked for.
+ * Filled by MyScanner.fill() from characters, or by ByteScanner.fill() from
+ * bytes.
+ *
+ */
+public class TokenBuffer {
+
+	private static final Keywords[] TYPES = Keywords.values();
+	private static final int NUMBER = Keywords.NUMBER.ordinal();
+
+	private char[] text = new char[0];
+	private byte[] bytes = null;
+	private int[] types;
+	private int[] starts;
+	private int[] lengths;
+	//the IdentifierTable id of an identifier, the number of a number, or -1.
+	private int[] ids;
+	//the value of each number, the bits of a double if it is real, by number.
+	private long[] values;
+	private boolean[] reals;
+	private int numbers = 0;
+	private int size = 0;
+	//offset of the end of the scanned text.
+	private int end = 0;
+	//made the first time a line or column is asked for.
+	private LineIndex lineIndex = null;
+
+	public TokenBuffer(){
+		this( 1024);
+	}
+
+	/**
+	 * @param capacity, number of tokens to make room for before growing.
+	 */
+	public TokenBuffer( int capacity){
+		capacity = Math.max( 16, capacity);
+		types = new int[capacity];
+		starts = new int[capacity];
+		lengths = new int[capacity];
+		ids = new int[capacity];
+		//numbers are rarely more than one token in ten.
+		values = new long[Math.max( 16, capacity / 8)];
+		reals = new boolean[values.length];
+	}
+
+	/**
+	 * Adds a token to the end of the buffer.
+	 * @param type, the type of the token, null if the scanner gave it none.
+	 * @param start, index of the token's first character in the text.
+	 * @param length, number of characters in the token.
+	 * @param id, the IdentifierTable id of an identifier, -1 for any other token.
+	 */
+	public void add( Keywords type, int start, int length, int id){
+		if( size == types.length){
+			grow( size * 2);
+		}
+		types[size] = (type != null) ? type.ordinal() : -1;
+		starts[size] = start;
+		lengths[size] = length;
+		ids[size] = id;
+		size++;
+	}
+
+	/**
+	 * Adds an integer number to the end of the buffer.
+	 * @param start, index of the number's first character in the text.
+	 * @param length, number of characters in the number.
+	 * @param value, the value of the number.
+	 */
+	public void addInteger( int start, int length, long value){
+		add( Keywords.NUMBER, start, length, addNumber( value, false));
+	}
+
+	/**
+	 * Adds a real number to the end of the buffer.
+	 * @param start, index of the number's first character in the text.
+	 * @param length, number of characters in the number.
+	 * @param value, the value of the number.
+	 */
+	public void addReal( int start, int length, double value){
+		add( Keywords.NUMBER, start, length, addNumber( Double.doubleToRawLongBits( value), true));
+	}
+
+	//keeps the value of a number, and returns its number.
+	private int addNumber( long value, boolean real){
+		if( numbers == values.length){
+			growNumbers( numbers * 2);
+		}
+		values[numbers] = value;
+		reals[numbers] = real;
+		return numbers++;
+	}
+
+	//adds every token of a buffer filled from a later part of the same text.
+	void append( TokenBuffer other){
+		if( size + other.size > types.length){
+			grow( Math.max( size + other.size, types.length * 2));
+		}
+		System.arraycopy( other.types, 0, types, size, other.size);
+		System.arraycopy( other.starts, 0, starts, size, other.size);
+		System.arraycopy( other.lengths, 0, lengths, size, other.size);
+		System.arraycopy( other.ids, 0, ids, size, other.size);
+		if( other.numbers > 0){
+			if( numbers + other.numbers > values.length){
+				growNumbers( Math.max( numbers + other.numbers, values.length * 2));
+			}
+			System.arraycopy( other.values, 0, values, numbers, other.numbers);
+			System.arraycopy( other.reals, 0, reals, numbers, other.numbers);
+			//the other buffer's numbers now follow this one's.
+			for( int i = size; i < size + other.size; i++){
+				if( types[i] == NUMBER){
+					ids[i] += numbers;
+				}
+			}
+			numbers += other.numbers;
+		}
+		size += other.size;
+	}
+
+	private void grow( int capacity){
+		types = Arrays.copyOf( types, capacity);
+		starts = Arrays.copyOf( starts, capacity);
+		lengths = Arrays.copyOf( lengths, capacity);
+		ids = Arrays.copyOf( ids, capacity);
+	}
+
+	private void growNumbers( int capacity){
+		values = Arrays.copyOf( values, capacity);
+		reals = Arrays.copyOf( reals, capacity);
+	}
+
+	void setText( char[] text){
+		this.text = text;
+		this.bytes = null;
+		this.lineIndex = null;
+	}
+
+	void setText( byte[] bytes){
+		this.text = null;
+		this.bytes = bytes;
+		this.lineIndex = null;
+	}
+
+	void setEnd( int end){
+		this.end = end;
+	}
+
+	/**
+	 * @return the number of tokens.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @return the text the tokens were scanned from, or null if they were scanned from bytes.
+	 */
+	public char[] getText(){
+		return text;
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return the type of the token, or null past the last token.
+	 */
+	public Keywords getType( int index){
+		if( index >= size || types[index] < 0){
+			return null;
+		}
+		return TYPES[types[index]];
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return the text of the token, or "End of File" past the last token.
+	 */
+	public String getLexeme( int index){
+		if( index >= size){
+			return "End of File";
+		}
+		if( ids[index] >= 0 && types[index] != NUMBER){
+			return IdentifierTable.name( ids[index]);
+		}
+		if( bytes != null){
+			return new String( bytes, starts[index], lengths[index], StandardCharsets.ISO_8859_1);
+		}
+		return new String( text, starts[index], lengths[index]);
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return the IdentifierTable id of the token, or -1 if it is not an identifier or is past the last token.
+	 */
+	public int getId( int index){
+		return (index < size && types[index] != NUMBER) ? ids[index] : -1;
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return true if the token is a number with a fraction.
+	 */
+	public boolean isReal( int index){
+		return (index < size) && types[index] == NUMBER && ids[index] >= 0 && reals[ids[index]];
+	}
+
+	/**
+	 * @param index, the token number of an integer.
+	 * @return the value of the integer.
+	 */
+	public long getIntegerValue( int index){
+		return values[ids[index]];
+	}
+
+	/**
+	 * @param index, the token number of a real.
+	 * @return the value of the real.
+	 */
+	public double getRealValue( int index){
+		return Double.longBitsToDouble( values[ids[index]]);
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return index of the token's first character in the text.
+	 */
+	public int getStart( int index){
+		return starts[index];
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return number of characters in the token.
+	 */
+	public int getLength( int index){
+		return lengths[index];
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return line the token starts on, or the line the input ended on past the last token.
+	 */
+	public int getLine( int index){
+		return lines().line( (index < size) ? starts[index] : end);
+	}
+
+	/**
+	 * @param index, a token number.
+	 * @return column the token starts at, or the column the input ended at past the last token.
+	 */
+	public int getColumn( int index){
+		return lines().column( (index < size) ? starts[index] : end);
+	}
+
+	private LineIndex lines(){
+		if( lineIndex == null){
+			lineIndex = new LineIndex();
+			if( bytes != null){
+				lineIndex.scan( bytes, 0, end);
+			}else{
+				lineIndex.scan( text, 0, end);
+			}
+		}
+		return lineIndex;
+	}
+}
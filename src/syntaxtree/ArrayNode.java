@@ -19,6 +19,16 @@ public class ArrayNode extends VariableNode {
 		super(name, type);
 		this.expression = null;
 	}
+	
+	/**
+	 * Initializes an ArrayNode for the name with the given id.
+	 * @param id, id of the name of the array in the IdentifierTable.
+	 * @param type, Integer or Real.
+	 */
+	public ArrayNode(int id, Keywords type){
+		super(id, type);
+		this.expression = null;
+	}
 
 	/**
 	 * Returns the ExpressionNode that represents the index of the element in the array.
@@ -58,7 +68,7 @@ public class ArrayNode extends VariableNode {
         boolean answer = false;
         if( o instanceof ArrayNode) {
             ArrayNode other = (ArrayNode)o;
-            if( super.name.equals( other.getName()) && ( this.expression.equals( other.getExpression()))){
+            if( super.id == other.getId() && ( this.expression.equals( other.getExpression()))){
             	answer = true;
             }
         }
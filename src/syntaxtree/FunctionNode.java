@@ -21,6 +21,16 @@ public class FunctionNode extends VariableNode{
         super(attr, type);
         expNodes = new ArrayList<ExpressionNode>();
     }
+    
+    /**
+     * Initializes a FunctionNode for the name with the given id.
+     * @param id, id of the name of this function in the IdentifierTable.
+     * @param type, Integer or Real.
+     */
+    public FunctionNode( int id, Keywords type) {
+        super(id, type);
+        expNodes = new ArrayList<ExpressionNode>();
+    }
 
     /**
      * Returns the name of the function.
@@ -78,7 +88,7 @@ public class FunctionNode extends VariableNode{
         boolean answer = false;
         if( o instanceof FunctionNode) {
             FunctionNode other = (FunctionNode)o;
-            if( super.name.equals( other.getName()) && ( this.expNodes.equals(other.getExpNode())))
+            if( super.id == other.getId() && ( this.expNodes.equals(other.getExpNode())))
                 answer = true;
         }
         return answer;
@@ -2,6 +2,8 @@ package syntaxtree;
 
 import java.util.ArrayList;
 
+import parser.ProcedureSymbol;
+
 /**
  * Represents a single procedure statement.
  * @author Allen Burgett
@@ -10,6 +12,8 @@ public class ProcedureStatementNode extends StatementNode {
 
     private VariableNode lvalue;
     private ArrayList<ExpressionNode> expressions = new ArrayList<ExpressionNode>();
+    //the procedure the name was resolved to by the parser.
+    private ProcedureSymbol symbol = null;
 
     //setters
     public void setLvalue(VariableNode input){
@@ -27,6 +31,10 @@ public class ProcedureStatementNode extends StatementNode {
     public void addAllExpNode(ArrayList<ExpressionNode> input){
     	expressions.addAll(input);
     }
+    
+    public void setSymbol(ProcedureSymbol input){
+    	this.symbol = input;
+    }
 
     //getters
     public VariableNode getLvalue(){
@@ -36,6 +44,10 @@ public class ProcedureStatementNode extends StatementNode {
     public ArrayList<ExpressionNode> getExpressions(){
     	return this.expressions;
     }
+    
+    public ProcedureSymbol getSymbol(){
+    	return this.symbol;
+    }
 
     @Override
     public String indentedToString( int level) {
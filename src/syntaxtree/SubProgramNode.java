@@ -2,6 +2,7 @@ package syntaxtree;
 
 import java.util.ArrayList;
 
+import parser.ProcedureSymbol;
 import scanner.Keywords;
 
 /**
@@ -20,6 +21,7 @@ public class SubProgramNode extends SyntaxTreeNode{
     private CompoundStatementNode main;
     private Keywords subType;
     private Keywords returnType = null;
+    private ProcedureSymbol symbol = null;
     
     /**
      * Initialized a SubProgramNode.
@@ -83,6 +85,14 @@ public class SubProgramNode extends SyntaxTreeNode{
     public Keywords getSubType(){
     	return subType;
     }
+    
+    public void setSymbol( ProcedureSymbol symbol){
+    	this.symbol = symbol;
+    }
+    
+    public ProcedureSymbol getSymbol(){
+    	return symbol;
+    }
 	
 	@Override
     public String indentedToString( int level) {
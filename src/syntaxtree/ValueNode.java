@@ -6,6 +6,7 @@
 package syntaxtree;
 
 import scanner.Keywords;
+import scanner.NumberLiteral;
 
 /**
  * Represents a value or number in an expression.
@@ -13,9 +14,15 @@ import scanner.Keywords;
  */
 public class ValueNode extends ExpressionNode {
     
-    /** The attribute associated with this node. */
+    /** The attribute associated with this node, made from the value when first asked for. */
     private String attribute;
     
+    /** The value of an integer. */
+    private long integerValue;
+    
+    /** The value of a real, or of an integer as a real. */
+    private double realValue;
+    
     /**
      * Creates a ValueNode with the given attribute.
      * @param attr The attribute for this value node.
@@ -24,13 +31,57 @@ public class ValueNode extends ExpressionNode {
     public ValueNode( String attr, Keywords type) {
         this.attribute = attr;
         super.type = type;
+        char[] text = attr.toCharArray();
+        if( type == Keywords.REAL) {
+            this.realValue = NumberLiteral.realValue( text, 0, text.length);
+        }
+        else {
+            this.integerValue = NumberLiteral.integerValue( text, 0, text.length);
+            this.realValue = this.integerValue;
+        }
+    }
+    
+    /**
+     * Creates an integer ValueNode.
+     * @param value The value of the integer.
+     */
+    public ValueNode( long value) {
+        this.integerValue = value;
+        this.realValue = value;
+        super.type = Keywords.INTEGER;
+    }
+    
+    /**
+     * Creates a real ValueNode.
+     * @param value The value of the real.
+     */
+    public ValueNode( double value) {
+        this.realValue = value;
+        super.type = Keywords.REAL;
     }
     
     /** 
      * Returns the attribute of this node.
      * @return The attribute of this ValueNode.
      */
-    public String getAttribute() { return( this.attribute);}
+    public String getAttribute() {
+        if( this.attribute == null) {
+            this.attribute = ( super.type == Keywords.REAL) ? Double.toString( realValue) : Long.toString( integerValue);
+        }
+        return( this.attribute);
+    }
+    
+    /**
+     * Returns the value of an integer node.
+     * @return The value of this ValueNode.
+     */
+    public long getIntegerValue() { return( this.integerValue);}
+    
+    /**
+     * Returns the value of this node as a real, whether it is an integer or a real.
+     * @return The value of this ValueNode.
+     */
+    public double getRealValue() { return( this.realValue);}
     
     /**
      * Returns the attribute as the description of this node.
@@ -38,13 +89,13 @@ public class ValueNode extends ExpressionNode {
      */
     @Override
     public String toString() {
-        return( attribute);
+        return( getAttribute());
     }
     
     @Override
     public String indentedToString( int level) {
         String answer = this.indentation(level);
-        answer += "Value: " + this.attribute + " of type " + super.type + "\n";
+        answer += "Value: " + getAttribute() + " of type " + super.type + "\n";
         return answer;
     }
 
@@ -53,7 +104,8 @@ public class ValueNode extends ExpressionNode {
         boolean answer = false;
         if( o instanceof ValueNode) {
             ValueNode other = (ValueNode)o;
-            if( this.attribute.equals( other.attribute)) answer = true;
+            if( super.type == other.type && this.integerValue == other.integerValue &&
+                    Double.compare( this.realValue, other.realValue) == 0) answer = true;
         }
         return answer;
     }    
@@ -1,6 +1,8 @@
 
 package syntaxtree;
 
+import parser.Symbol;
+import scanner.IdentifierTable;
 import scanner.Keywords;
 
 /**
@@ -12,13 +14,29 @@ public class VariableNode extends ExpressionNode {
     /** The name of the variable associated with this node. */
     protected String name;
     
+    /** The id of the name in the IdentifierTable. */
+    protected int id;
+    
+    /** The symbol the name was resolved to by the parser, or null. */
+    protected Symbol symbol = null;
+    
     /**
      * Creates a ValueNode with the given attribute.
      * @param attr The attribute for this value node.
      * @param type, Integer or Real.
      */
     public VariableNode( String attr, Keywords type) {
-        this.name = attr;
+        this( IdentifierTable.intern( attr), type);
+    }
+    
+    /**
+     * Creates a VariableNode for the name with the given id.
+     * @param id, id of the name in the IdentifierTable.
+     * @param type, Integer or Real.
+     */
+    public VariableNode( int id, Keywords type) {
+        this.id = id;
+        this.name = IdentifierTable.name( id);
         super.type = type;
     }
     
@@ -28,6 +46,24 @@ public class VariableNode extends ExpressionNode {
      */
     public String getName() { return( this.name);}
     
+    /** 
+     * Returns the id of the name of the variable of this node.
+     * @return The IdentifierTable id of the name.
+     */
+    public int getId() { return( this.id);}
+    
+    /**
+     * Returns the symbol this name was bound to where it was parsed.
+     * @return The Symbol of the name, or null if it was not resolved.
+     */
+    public Symbol getSymbol() { return( this.symbol);}
+    
+    /**
+     * Binds this name to the symbol it resolved to.
+     * @param symbol, the most local Symbol of the name.
+     */
+    public void setSymbol( Symbol symbol) { this.symbol = symbol;}
+    
     /**
      * Returns the name of the variable as the description of this node.
      * @return The attribute String of this node.
@@ -49,7 +85,7 @@ public class VariableNode extends ExpressionNode {
         boolean answer = false;
         if( o instanceof VariableNode) {
             VariableNode other = (VariableNode)o;
-            if( this.name.equals( other.name)) answer = true;
+            if( this.id == other.id) answer = true;
         }
         return answer;
     }    
@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Makes the hand edits of MyScanner.java to a scanner JFlex 1.6.1 has just
+ * generated from MyScanner.jflex. Run by regenerate-scanner.sh; the edited
+ * scanner is written to standard out. The edits are:
+ * the character map is kept to ASCII, with zzCMap() for other characters;
+ * the action, row map, transition and attribute tables are written out as
+ * package private arrays, which ByteScanner also reads, rather than unpacked
+ * at start up; the unused line and column counters are dropped; zzRefill()
+ * returns at once for text given in memory, and indexes the lines of the
+ * buffer before dropping any of it; yyreset() drops the line index; and the
+ * standalone echo of unmatched text goes through echo().
+ * Every edit finds the exact text JFlex 1.6.1 writes, and fails if it is not
+ * there, rather than leaving an edit out.
+ * @author Allen Burgett
+ *
+ */
+public class ScannerEdits {
+
+	//characters above ASCII with a class are tested one run at a time, so there must not be many runs.
+	private static final int MAX_RUNS = 16;
+
+	private static final String NOTICE =
+			"/*\n"
+			+ " * DO NOT REGENERATE this file with JFlex alone. It is edited by hand after\n"
+			+ " * generating, and the edits are lost if it is simply generated again.\n"
+			+ " * Change MyScanner.jflex and run tools/regenerate-scanner.sh, which\n"
+			+ " * generates the scanner and then makes the edits again.\n"
+			+ " */\n";
+
+	private String text;
+
+	private ScannerEdits( String text){
+		this.text = text;
+	}
+
+	/**
+	 * Usage: ScannerEdits generated-file
+	 * @param args, the scanner JFlex generated.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static void main( String[] args) throws IOException{
+		if( args.length != 1){
+			System.err.println( "Usage: java ScannerEdits <generated MyScanner.java>");
+			System.exit( 2);
+		}
+		String generated = new String( Files.readAllBytes( Paths.get( args[0])), StandardCharsets.UTF_8);
+		ScannerEdits edits = new ScannerEdits( generated);
+		try{
+			edits.edit();
+		}catch( IllegalStateException ex){
+			System.err.println( "Cannot edit the generated scanner: " + ex.getMessage());
+			System.exit( 1);
+		}
+		System.out.print( edits.text);
+	}
+
+	private void edit(){
+		replace( "/* The following code was generated by JFlex 1.6.1 */\n",
+				"/* The following code was generated by JFlex 1.6.1 */\n\n" + NOTICE);
+		characterMap();
+		table( "ACTION", "Action");
+		table( "ROWMAP", "RowMap");
+		table( "TRANS", "Trans");
+		table( "ATTRIBUTE", "Attribute");
+
+		remove( "  /** number of newlines encountered up to the start of the matched text */\n"
+				+ "  private int yyline;\n\n");
+		remove( "  /**\n"
+				+ "   * the number of characters from the last newline up to the start of the \n"
+				+ "   * matched text\n"
+				+ "   */\n"
+				+ "  private int yycolumn;\n\n");
+		replace( "    yyline = yychar = yycolumn = 0;\n",
+				"    yychar = 0;\n"
+				+ "    lines = null;\n");
+
+		replace( "  private boolean zzRefill() throws java.io.IOException {\n\n"
+				+ "    /* first: make room (if you can) */\n"
+				+ "    if (zzStartRead > 0) {\n",
+				"  private boolean zzRefill() throws java.io.IOException {\n\n"
+				+ "    /* text given in memory is all in the buffer already */\n"
+				+ "    if (zzReader == null) {\n"
+				+ "      return true;\n"
+				+ "    }\n\n"
+				+ "    /* first: make room (if you can) */\n"
+				+ "    if (zzStartRead > 0) {\n"
+				+ "      /* index the lines of the text about to be dropped */\n"
+				+ "      indexLines(yychar);\n");
+
+		replace( "            { System.out.print(yytext());\n",
+				"            { echo(yytext());\n");
+	}
+
+	//writes the ASCII part of the character map out, and the rest as tests in zzCMap().
+	private void characterMap(){
+		Matcher matcher = find( "  /\\*\\* \n"
+				+ "   \\* Translates characters to character classes\n"
+				+ "   \\*/\n"
+				+ "  private static final String ZZ_CMAP_PACKED = \n"
+				+ "((?:    \".*\"\\+\n)*    \".*\";\n)"
+				+ "\n  /\\*\\* \n"
+				+ "   \\* Translates characters to character classes\n"
+				+ "   \\*/\n"
+				+ "  private static final char \\[\\] ZZ_CMAP = zzUnpackCMap\\(ZZ_CMAP_PACKED\\);\n");
+		String packed = strings( matcher.group( 1));
+
+		//the packed map is pairs of a count and the class of that many characters.
+		int[] ascii = new int[128];
+		TreeMap<Integer, ArrayList<int[]>> runs = new TreeMap<Integer, ArrayList<int[]>>();
+		int count = 0;
+		int c = 0;
+		for( int i = 0; i < packed.length(); i += 2){
+			int length = packed.charAt( i);
+			int value = packed.charAt( i + 1);
+			for( int k = c; k < c + length && k < ascii.length; k++){
+				ascii[k] = value;
+			}
+			int first = Math.max( c, ascii.length);
+			if( value != 0 && first < c + length){
+				if(! runs.containsKey( value)){
+					runs.put( value, new ArrayList<int[]>());
+				}
+				runs.get( value).add( new int[]{ first, c + length - 1});
+				count++;
+			}
+			c += length;
+		}
+		if( count > MAX_RUNS){
+			throw new IllegalStateException( count + " runs of characters above ASCII have a class, too many to test in zzCMap()");
+		}
+
+		StringBuilder map = new StringBuilder();
+		map.append( "  /** \n"
+				+ "   * Translates ASCII characters to character classes. The table is kept to\n"
+				+ "   * ASCII, as Mini-Pascal is; other characters are classed by zzCMap().\n"
+				+ "   */\n"
+				+ "  private static final char [] ZZ_CMAP = ");
+		map.append( literal( ascii));
+		map.append( "\n  /** \n"
+				+ "   * Translates a character to its character class.\n"
+				+ "   */\n"
+				+ "  static int zzCMap(int ch) {\n"
+				+ "    if (ch < ZZ_CMAP.length) return ZZ_CMAP[ch];\n");
+		if(! runs.isEmpty()){
+			map.append( "    /* the other characters that have a class */\n");
+		}
+		for( Integer value : runs.keySet()){
+			StringBuilder test = new StringBuilder();
+			for( int[] run : runs.get( value)){
+				if( test.length() > 0){
+					test.append( " || ");
+				}
+				if( run[0] == run[1]){
+					test.append( "ch == ").append( character( run[0]));
+				}else{
+					test.append( "(ch >= ").append( character( run[0])).append( " && ch <= ").append( character( run[1])).append( ")");
+				}
+			}
+			map.append( "    if (").append( test).append( ") return ").append( value).append( ";\n");
+		}
+		map.append( "    return 0;\n"
+				+ "  }\n");
+		splice( matcher, map.toString());
+
+		//the scanning loop classes ASCII from the table and only calls zzCMap() for the rest.
+		remove( "    char [] zzCMapL = ZZ_CMAP;\n");
+		replace( "zzCMapL[zzInput]", "(zzInput < 128 ? ZZ_CMAP[zzInput] : zzCMap(zzInput))");
+		splice( find( "  /\\*\\* \n"
+				+ "   \\* Unpacks the compressed character translation table\\.\n"
+				+ "(?:   \\*.*\n)*"
+				+ "   \\*/\n"
+				+ "  private static char \\[\\] zzUnpackCMap\\(String packed\\) \\{\n"
+				+ "(?:    .*\n)*?"
+				+ "  \\}\n\n\n"), "");
+	}
+
+	//writes a packed int table out as a package private array.
+	private void table( String name, String method){
+		Matcher matcher = find( "  private static final int \\[\\] ZZ_" + name + " = zzUnpack" + method + "\\(\\);\n"
+				+ "((?:\n|  private static final String ZZ_" + name + "_PACKED_\\d+ =\n(?:    \".*\"\\+\n)*    \".*\";\n)+)"
+				+ "\n  private static int \\[\\] zzUnpack" + method + "\\(\\) \\{\n"
+				+ "    int \\[\\] result = new int\\[(\\d+)\\];\n"
+				+ "(?:    .*\n)*?"
+				+ "  \\}\n\n"
+				+ "  private static int zzUnpack" + method + "\\(String packed, int offset, int \\[\\] result\\) \\{\n"
+				+ "(?:    .*\n)*?"
+				+ "  \\}\n");
+		String packed = strings( matcher.group( 1));
+		int[] table = new int[Integer.parseInt( matcher.group( 2))];
+		int j = 0;
+		for( int i = 0; i < packed.length(); i += 2){
+			if( name.equals( "ROWMAP")){
+				//each entry is its high and low half.
+				table[j++] = (packed.charAt( i) << 16) | packed.charAt( i + 1);
+			}else{
+				//pairs of a count and a value, which the transition table stores plus one.
+				int length = packed.charAt( i);
+				int value = packed.charAt( i + 1) - (name.equals( "TRANS") ? 1 : 0);
+				for( int k = 0; k < length; k++){
+					table[j++] = value;
+				}
+			}
+		}
+		if( j != table.length){
+			throw new IllegalStateException( "ZZ_" + name + " unpacked to " + j + " entries, not " + table.length);
+		}
+		splice( matcher, "  static final int [] ZZ_" + name + " = " + literal( table));
+	}
+
+	//the characters of the Java string literals in the text, joined.
+	private static String strings( String literals){
+		StringBuilder chars = new StringBuilder();
+		Matcher matcher = Pattern.compile( "\"((?:[^\"\\\\]|\\\\.)*)\"").matcher( literals);
+		while( matcher.find()){
+			String body = matcher.group( 1);
+			for( int i = 0; i < body.length(); i++){
+				char c = body.charAt( i);
+				if( c != '\\'){
+					chars.append( c);
+				}else if( body.charAt( i + 1) == 'u'){
+					chars.append( (char) Integer.parseInt( body.substring( i + 2, i + 6), 16));
+					i += 5;
+				}else if( Character.isDigit( body.charAt( i + 1))){
+					int end = i + 1;
+					while( end < body.length() && end < i + 4 && body.charAt( end) >= '0' && body.charAt( end) <= '7'){
+						end++;
+					}
+					chars.append( (char) Integer.parseInt( body.substring( i + 1, end), 8));
+					i = end - 1;
+				}else{
+					chars.append( escaped( body.charAt( i + 1)));
+					i++;
+				}
+			}
+		}
+		return chars.toString();
+	}
+
+	private static char escaped( char c){
+		switch( c){
+		case 'n':
+			return '\n';
+		case 't':
+			return '\t';
+		case 'r':
+			return '\r';
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		default:
+			return c;
+		}
+	}
+
+	//an array initializer, sixteen entries to a line.
+	private static String literal( int[] values){
+		StringBuilder literal = new StringBuilder( "{\n");
+		for( int i = 0; i < values.length; i++){
+			literal.append( (i % 16 == 0) ? "    " : " ");
+			literal.append( String.format( "%2d", values[i]));
+			if( i + 1 < values.length){
+				literal.append( ',');
+			}
+			if( i % 16 == 15 || i + 1 == values.length){
+				literal.append( '\n');
+			}
+		}
+		return literal.append( "  };\n").toString();
+	}
+
+	private static String character( int c){
+		return (c > 0xffff) ? "0x" + Integer.toHexString( c) : String.format( "'\\u%04x'", c);
+	}
+
+	private Matcher find( String regex){
+		Matcher matcher = Pattern.compile( regex).matcher( text);
+		if(! matcher.find()){
+			throw new IllegalStateException( "no match for " + regex.split( "\n")[0]);
+		}
+		return matcher;
+	}
+
+	private void splice( Matcher matcher, String replacement){
+		text = text.substring( 0, matcher.start()) + replacement + text.substring( matcher.end());
+	}
+
+	private void replace( String from, String to){
+		int at = text.indexOf( from);
+		if( at < 0 || text.indexOf( from, at + 1) >= 0){
+			throw new IllegalStateException( "expected exactly one " + from.trim());
+		}
+		text = text.substring( 0, at) + to + text.substring( at + from.length());
+	}
+
+	private void remove( String from){
+		replace( from, "");
+	}
+}
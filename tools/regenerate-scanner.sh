@@ -0,0 +1,14 @@
+#!/bin/sh
+# Regenerates src/scanner/MyScanner.java from src/scanner/MyScanner.jflex with
+# JFlex 1.6.1, then makes the hand edits to it again with ScannerEdits.
+# Usage: tools/regenerate-scanner.sh [jflex command, jflex by default]
+set -e
+cd "$(dirname "$0")/.."
+jflex="${1:-jflex}"
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+"$jflex" -q --nobak -d "$work" src/scanner/MyScanner.jflex
+javac -nowarn -d "$work" tools/ScannerEdits.java
+java -cp "$work" ScannerEdits "$work/MyScanner.java" > "$work/MyScanner.edited"
+cp "$work/MyScanner.edited" src/scanner/MyScanner.java